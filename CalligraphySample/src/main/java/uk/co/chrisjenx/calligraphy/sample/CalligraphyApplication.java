@@ -3,6 +3,7 @@ package uk.co.chrisjenx.calligraphy.sample;
 import android.app.Application;
 
 import uk.co.chrisjenx.calligraphy.CalligraphyConfig;
+import uk.co.chrisjenx.calligraphy.TypefaceUtils;
 
 /**
  * Created by chris on 06/05/2014.
@@ -18,7 +19,9 @@ public class CalligraphyApplication extends Application {
                 .setFontAttrId(R.attr.fontPath)
                 .addCustomViewWithSetTypeface(CustomViewWithTypefaceSupport.class)
                 .addCustomStyle(TextField.class, R.attr.textFieldStyle)
+                .addPreloadFontFolder("fonts")
                 .build()
         );
+        TypefaceUtils.preloadAsync(this);
     }
 }
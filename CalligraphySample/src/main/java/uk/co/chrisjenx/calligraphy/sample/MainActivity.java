@@ -8,6 +8,7 @@ import android.support.v7.app.AppCompatActivity;
 import android.support.v7.widget.Toolbar;
 
 import uk.co.chrisjenx.calligraphy.CalligraphyContextWrapper;
+import uk.co.chrisjenx.calligraphy.CalligraphyFontIndex;
 
 import static butterknife.ButterKnife.findById;
 
@@ -16,6 +17,9 @@ public class MainActivity extends AppCompatActivity {
     @Override
     protected void onCreate(Bundle savedInstanceState) {
         super.onCreate(savedInstanceState);
+        // Start decoding the fonts the theme and layouts use while we inflate.
+        CalligraphyFontIndex.preload(this, R.layout.activity_main);
+        CalligraphyFontIndex.preloadLayout(this, R.layout.fragment_main);
         setContentView(R.layout.activity_main);
         final Toolbar toolbar = findById(this, R.id.toolbar);
         setSupportActionBar(toolbar);
@@ -0,0 +1,143 @@
+package uk.co.chrisjenx.calligraphy;
+
+import android.content.Context;
+import android.support.v7.app.AppCompatViewInflater;
+import android.support.v7.widget.AppCompatAutoCompleteTextView;
+import android.support.v7.widget.AppCompatButton;
+import android.support.v7.widget.AppCompatCheckBox;
+import android.support.v7.widget.AppCompatCheckedTextView;
+import android.support.v7.widget.AppCompatEditText;
+import android.support.v7.widget.AppCompatMultiAutoCompleteTextView;
+import android.support.v7.widget.AppCompatRadioButton;
+import android.support.v7.widget.AppCompatTextView;
+import android.util.AttributeSet;
+import android.view.View;
+
+import java.lang.reflect.Constructor;
+import java.lang.reflect.InvocationTargetException;
+
+/**
+ * Applies fonts from inside AppCompat's view inflation, instead of wrapping the Activity's
+ * LayoutInflater. Set it on your AppCompat theme:
+ * <pre>
+ * {@code
+ * <style name="AppTheme" parent="Theme.AppCompat">
+ *     <item name="viewInflaterClass">uk.co.chrisjenx.calligraphy.CalligraphyAppCompatViewInflater</item>
+ * </style>
+ * }
+ * </pre>
+ * and don't wrap the Activity with {@link CalligraphyContextWrapper}. Each view gets its font as
+ * it's created, without setting the private factory or touching LayoutInflater fields. Custom
+ * views are still constructed reflectively, as the LayoutInflater would, and
+ * {@link CalligraphyConfig.Builder#addCustomViewWithSetTypeface(Class)} views still have their
+ * {@code setTypeface} invoked reflectively.
+ * Only views inflated through an AppCompatActivity (or AppCompatDelegate) are covered.
+ */
+public class CalligraphyAppCompatViewInflater extends AppCompatViewInflater {
+
+    /**
+     * Packages bare tag names are looked for in, as the platform LayoutInflater does.
+     */
+    private static final String[] sClassPrefixList = {
+            "android.widget.",
+            "android.webkit.",
+            "android.view."
+    };
+
+    private final CalligraphyFactory mCalligraphyFactory;
+
+    public CalligraphyAppCompatViewInflater() {
+        mCalligraphyFactory = CalligraphyFactory.get(CalligraphyConfig.get().getAttrId());
+    }
+
+    @Override
+    protected AppCompatTextView createTextView(Context context, AttributeSet attrs) {
+        final AppCompatTextView view = super.createTextView(context, attrs);
+        mCalligraphyFactory.onViewCreated(view, context, attrs);
+        return view;
+    }
+
+    @Override
+    protected AppCompatButton createButton(Context context, AttributeSet attrs) {
+        final AppCompatButton view = super.createButton(context, attrs);
+        mCalligraphyFactory.onViewCreated(view, context, attrs);
+        return view;
+    }
+
+    @Override
+    protected AppCompatEditText createEditText(Context context, AttributeSet attrs) {
+        final AppCompatEditText view = super.createEditText(context, attrs);
+        mCalligraphyFactory.onViewCreated(view, context, attrs);
+        return view;
+    }
+
+    @Override
+    protected AppCompatCheckBox createCheckBox(Context context, AttributeSet attrs) {
+        final AppCompatCheckBox view = super.createCheckBox(context, attrs);
+        mCalligraphyFactory.onViewCreated(view, context, attrs);
+        return view;
+    }
+
+    @Override
+    protected AppCompatRadioButton createRadioButton(Context context, AttributeSet attrs) {
+        final AppCompatRadioButton view = super.createRadioButton(context, attrs);
+        mCalligraphyFactory.onViewCreated(view, context, attrs);
+        return view;
+    }
+
+    @Override
+    protected AppCompatCheckedTextView createCheckedTextView(Context context, AttributeSet attrs) {
+        final AppCompatCheckedTextView view = super.createCheckedTextView(context, attrs);
+        mCalligraphyFactory.onViewCreated(view, context, attrs);
+        return view;
+    }
+
+    @Override
+    protected AppCompatAutoCompleteTextView createAutoCompleteTextView(Context context, AttributeSet attrs) {
+        final AppCompatAutoCompleteTextView view = super.createAutoCompleteTextView(context, attrs);
+        mCalligraphyFactory.onViewCreated(view, context, attrs);
+        return view;
+    }
+
+    @Override
+    protected AppCompatMultiAutoCompleteTextView createMultiAutoCompleteTextView(Context context, AttributeSet attrs) {
+        final AppCompatMultiAutoCompleteTextView view = super.createMultiAutoCompleteTextView(context, attrs);
+        mCalligraphyFactory.onViewCreated(view, context, attrs);
+        return view;
+    }
+
+    /**
+     * Called for every tag AppCompat doesn't replace itself. We only create the views that can
+     * take a font (Switch, Toolbar, custom TextViews etc.), everything else is left to the
+     * LayoutInflater by returning null (ViewStubs included, as only it can give them an inflater).
+     */
+    @Override
+    protected View createView(Context context, String name, AttributeSet attrs) {
+        final Constructor<? extends View> constructor = getViewConstructor(context, name);
+        if (constructor == null || CalligraphyFactory.getViewKind(constructor.getDeclaringClass()) == CalligraphyFactory.VIEW_IGNORED) {
+            return null;
+        }
+        final View view;
+        try {
+            view = constructor.newInstance(context, attrs);
+        } catch (InvocationTargetException e) {
+            throw CalligraphyLayoutInflater.newInflateException(name, attrs, e.getCause());
+        } catch (InstantiationException | IllegalAccessException e) {
+            throw CalligraphyLayoutInflater.newInflateException(name, attrs, e);
+        }
+        return mCalligraphyFactory.onViewCreated(view, context, attrs);
+    }
+
+    private static Constructor<? extends View> getViewConstructor(Context context, String name) {
+        final ClassLoader classLoader = context.getClassLoader();
+        if (name.indexOf('.') > -1) {
+            if (!CalligraphyConfig.get().isCustomViewCreation()) return null;
+            return CalligraphyLayoutInflater.getViewConstructor(name, classLoader);
+        }
+        for (String prefix : sClassPrefixList) {
+            final Constructor<? extends View> constructor = CalligraphyLayoutInflater.getViewConstructor(prefix + name, classLoader);
+            if (constructor != null) return constructor;
+        }
+        return null;
+    }
+}
@@ -12,11 +12,15 @@ import android.widget.RadioButton;
 import android.widget.TextView;
 import android.widget.ToggleButton;
 
+import java.io.File;
+import java.util.ArrayList;
 import java.util.Collections;
 import java.util.HashMap;
 import java.util.HashSet;
+import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 
 /**
  * Created by chris on 20/12/2013
@@ -61,7 +65,12 @@ public class CalligraphyConfig {
         DEFAULT_STYLES.put(android.support.v7.widget.AppCompatCheckedTextView.class, android.R.attr.checkedTextViewStyle);
     }
 
-    private static CalligraphyConfig sInstance;
+    /**
+     * Returned by {@link #getClassStyle(Class)} when no class in the hierarchy has a style.
+     */
+    static final int NO_CLASS_STYLE = 0;
+
+    private static volatile CalligraphyConfig sInstance;
 
     /**
      * Set the default Calligraphy Config
@@ -71,6 +80,9 @@ public class CalligraphyConfig {
      */
     public static void initDefault(CalligraphyConfig calligraphyConfig) {
         sInstance = calligraphyConfig;
+        // Give fonts which failed under the old config another go.
+        TypefaceUtils.clearFailedLoads();
+        FontResolutionCache.clear();
     }
 
     /**
@@ -78,9 +90,17 @@ public class CalligraphyConfig {
      * If not set it will create a default config.
      */
     public static CalligraphyConfig get() {
-        if (sInstance == null)
-            sInstance = new CalligraphyConfig(new Builder());
-        return sInstance;
+        CalligraphyConfig instance = sInstance;
+        if (instance == null) {
+            synchronized (CalligraphyConfig.class) {
+                instance = sInstance;
+                if (instance == null) {
+                    instance = new CalligraphyConfig(new Builder());
+                    sInstance = instance;
+                }
+            }
+        }
+        return instance;
     }
 
     /**
@@ -107,15 +127,69 @@ public class CalligraphyConfig {
      * Use Reflection to try to set typeface for custom views if they has setTypeface method
      */
     private final boolean mCustomViewTypefaceSupport;
+    /**
+     * Apply TextView fonts once each inflate has built its tree, rather than as each view is created.
+     */
+    private final boolean mBatchedInflation;
     /**
      * Class Styles. Build from DEFAULT_STYLES and the builder.
      */
     private final Map<Class<? extends TextView>, Integer> mClassStyleAttributeMap;
+    /**
+     * Classes registered with {@link Builder#addCustomStyle(Class, int)}, only their styles are
+     * passed on to subclasses.
+     */
+    private final Set<Class<? extends TextView>> mInheritedClassStyles;
+    /**
+     * Style of each concrete class seen so far, see {@link #getClassStyle(Class)},
+     * {@link #NO_CLASS_STYLE} if none.
+     */
+    private final ConcurrentHashMap<Class<?>, Integer> mResolvedClassStyles = new ConcurrentHashMap<>();
     /**
      * Collection of custom non-{@code TextView}'s registered for applying typeface during inflation
      * @see uk.co.chrisjenx.calligraphy.CalligraphyConfig.Builder#addCustomViewWithSetTypeface(Class)
      */
     private final Set<Class<?>> hasTypefaceViews;
+    /**
+     * Whether each concrete class seen so far is, or extends/implements, one of {@link #hasTypefaceViews}.
+     */
+    private final ConcurrentHashMap<Class<?>, Boolean> mResolvedHasTypefaceViews = new ConcurrentHashMap<>();
+    /**
+     * How long to wait before retrying a font which failed to load, {@link Builder#FONT_RETRY_NEVER} to never retry.
+     */
+    private final long mFontLoadRetryDelay;
+    /**
+     * Fonts to load with {@link TypefaceUtils#preloadAsync(android.content.Context)}.
+     */
+    private final List<String> mPreloadFontPaths;
+    /**
+     * Asset folders to load every font from with {@link TypefaceUtils#preloadAsync(android.content.Context)}.
+     */
+    private final List<String> mPreloadFontFolders;
+    /**
+     * Max total size of cached font files, {@link Builder#FONT_CACHE_UNBOUNDED} if unbounded.
+     */
+    private final long mMaxFontCacheSize;
+    /**
+     * Size to shrink the font cache to when memory is low.
+     */
+    private final long mFontCacheTrimFloor;
+    /**
+     * Where to extract asset fonts to, null to load them straight from the assets.
+     */
+    private final File mFontExtractionDir;
+    /**
+     * Told about inflation and font loading, null when no one is listening.
+     */
+    private final CalligraphyMetricsListener mMetricsListener;
+    /**
+     * Font families by their regular font path.
+     */
+    private final Map<String, CalligraphyFontFamily> mFontFamilies;
+    /**
+     * The style each family member really has, by font path.
+     */
+    private final Map<String, Integer> mDeclaredFontStyles;
 
     protected CalligraphyConfig(Builder builder) {
         mIsFontSet = builder.isFontSet;
@@ -124,10 +198,29 @@ public class CalligraphyConfig {
         mReflection = builder.reflection;
         mCustomViewCreation = builder.customViewCreation;
         mCustomViewTypefaceSupport = builder.customViewTypefaceSupport;
+        mBatchedInflation = builder.batchedInflation;
         final Map<Class<? extends TextView>, Integer> tempMap = new HashMap<>(DEFAULT_STYLES);
         tempMap.putAll(builder.mStyleClassMap);
         mClassStyleAttributeMap = Collections.unmodifiableMap(tempMap);
-        hasTypefaceViews = Collections.unmodifiableSet(builder.mHasTypefaceClasses);
+        mInheritedClassStyles = Collections.unmodifiableSet(new HashSet<>(builder.mStyleClassMap.keySet()));
+        hasTypefaceViews = Collections.unmodifiableSet(new HashSet<>(builder.mHasTypefaceClasses));
+        mFontLoadRetryDelay = builder.fontLoadRetryDelay;
+        mPreloadFontPaths = Collections.unmodifiableList(new ArrayList<>(builder.mPreloadFontPaths));
+        mPreloadFontFolders = Collections.unmodifiableList(new ArrayList<>(builder.mPreloadFontFolders));
+        mMaxFontCacheSize = builder.maxFontCacheSize;
+        mFontCacheTrimFloor = builder.fontCacheTrimFloor;
+        mFontExtractionDir = builder.fontExtractionDir;
+        mMetricsListener = builder.metricsListener;
+        mFontFamilies = Collections.unmodifiableMap(new HashMap<>(builder.mFontFamilies));
+        final Map<String, Integer> declaredStyles = new HashMap<>();
+        for (CalligraphyFontFamily family : mFontFamilies.values()) {
+            for (String path : family.getFontPaths()) {
+                if (!declaredStyles.containsKey(path)) {
+                    declaredStyles.put(path, family.getDeclaredStyle(path));
+                }
+            }
+        }
+        mDeclaredFontStyles = Collections.unmodifiableMap(declaredStyles);
     }
 
     /**
@@ -156,14 +249,64 @@ public class CalligraphyConfig {
         return mCustomViewTypefaceSupport;
     }
 
+    public boolean isBatchedInflation() {
+        return mBatchedInflation;
+    }
+
+    /**
+     * @return true if the view's class, one of its superclasses or one of its interfaces was
+     * registered with {@link Builder#addCustomViewWithSetTypeface(Class)}.
+     */
     public boolean isCustomViewHasTypeface(View view) {
-        return hasTypefaceViews.contains(view.getClass());
+        return isCustomViewHasTypeface(view.getClass());
+    }
+
+    /* default */ boolean isCustomViewHasTypeface(Class<?> viewClass) {
+        Boolean hasTypeface = mResolvedHasTypefaceViews.get(viewClass);
+        if (hasTypeface == null) {
+            hasTypeface = Boolean.FALSE;
+            for (Class<?> clazz : hasTypefaceViews) {
+                if (clazz.isAssignableFrom(viewClass)) {
+                    hasTypeface = Boolean.TRUE;
+                    break;
+                }
+            }
+            mResolvedHasTypefaceViews.put(viewClass, hasTypeface);
+        }
+        return hasTypeface;
     }
 
     /* default */ Map<Class<? extends TextView>, Integer> getClassStyles() {
         return mClassStyleAttributeMap;
     }
 
+    /**
+     * Like {@link #getClassStyles()} but subclasses of a class added with
+     * {@link Builder#addCustomStyle(Class, int)} get its style too. The default styles only apply
+     * to their own class, so e.g. {@code Switch} doesn't pick up {@code buttonStyle} from
+     * {@code Button}, nor a custom {@code TextView} subclass {@code textViewStyle}.
+     *
+     * @param clazz a view class.
+     * @return the style attribute of the class, or of the closest added class it extends,
+     * {@link #NO_CLASS_STYLE} if none.
+     */
+    /* default */ int getClassStyle(Class<?> clazz) {
+        Integer style = mResolvedClassStyles.get(clazz);
+        if (style == null) {
+            style = NO_CLASS_STYLE;
+            for (Class<?> c = clazz; c != null && c != View.class; c = c.getSuperclass()) {
+                final Integer classStyle = mClassStyleAttributeMap.get(c);
+                if (classStyle != null) {
+                    // The closest class with a style decides, even if it doesn't pass it on.
+                    if (c == clazz || mInheritedClassStyles.contains(c)) style = classStyle;
+                    break;
+                }
+            }
+            mResolvedClassStyles.put(clazz, style);
+        }
+        return style;
+    }
+
     /**
      * @return the custom attrId to look for, -1 if not set.
      */
@@ -171,11 +314,80 @@ public class CalligraphyConfig {
         return mAttrId;
     }
 
+    /**
+     * @return millis to wait before retrying a failed font load, {@link Builder#FONT_RETRY_NEVER} if never.
+     */
+    public long getFontLoadRetryDelay() {
+        return mFontLoadRetryDelay;
+    }
+
+    /**
+     * @return max bytes of font files to keep loaded, {@link Builder#FONT_CACHE_UNBOUNDED} if unbounded.
+     */
+    public long getMaxFontCacheSize() {
+        return mMaxFontCacheSize;
+    }
+
+    /**
+     * @return bytes of font files to keep when trimming memory.
+     */
+    public long getFontCacheTrimFloor() {
+        return mFontCacheTrimFloor;
+    }
+
+    /**
+     * @return dir asset fonts are extracted to, null if they are loaded from the assets.
+     */
+    public File getFontExtractionDir() {
+        return mFontExtractionDir;
+    }
+
+    /**
+     * @return the metrics listener, null if none was set.
+     */
+    public CalligraphyMetricsListener getMetricsListener() {
+        return mMetricsListener;
+    }
+
+    /**
+     * @param fontPath a font path, as used in fontPath or the default font.
+     * @return the family registered for that regular font path, null if there isn't one.
+     */
+    public CalligraphyFontFamily getFontFamily(String fontPath) {
+        return fontPath == null || mFontFamilies.isEmpty() ? null : mFontFamilies.get(fontPath);
+    }
+
+    /**
+     * @return the bold/italic style the font at this path really has if it's a family member,
+     * otherwise {@link android.graphics.Typeface#NORMAL}.
+     */
+    /* default */ int getDeclaredFontStyle(String fontPath) {
+        if (fontPath == null || mDeclaredFontStyles.isEmpty()) return 0;
+        final Integer style = mDeclaredFontStyles.get(fontPath);
+        return style != null ? style : 0;
+    }
+
+    /* default */ List<String> getPreloadFontPaths() {
+        return mPreloadFontPaths;
+    }
+
+    /* default */ List<String> getPreloadFontFolders() {
+        return mPreloadFontFolders;
+    }
+
     public static class Builder {
         /**
          * Default AttrID if not set.
          */
         public static final int INVALID_ATTR_ID = -1;
+        /**
+         * Failed font loads are remembered until the next {@link CalligraphyConfig#initDefault(CalligraphyConfig)}.
+         */
+        public static final long FONT_RETRY_NEVER = -1;
+        /**
+         * Keep every font ever loaded, the default.
+         */
+        public static final long FONT_CACHE_UNBOUNDED = -1;
         /**
          * Use Reflection to inject the private factory. Doesn't exist pre HC. so defaults to false.
          */
@@ -188,6 +400,10 @@ public class CalligraphyConfig {
          * Use Reflection during view creation to try change typeface via setTypeface method if it exists
          */
         private boolean customViewTypefaceSupport = false;
+        /**
+         * Apply TextView fonts after each inflate instead of during it.
+         */
+        private boolean batchedInflation = false;
         /**
          * The fontAttrId to look up the font path from.
          */
@@ -207,6 +423,22 @@ public class CalligraphyConfig {
 
         private Set<Class<?>> mHasTypefaceClasses = new HashSet<>();
 
+        private long fontLoadRetryDelay = FONT_RETRY_NEVER;
+
+        private List<String> mPreloadFontPaths = new ArrayList<>();
+
+        private List<String> mPreloadFontFolders = new ArrayList<>();
+
+        private long maxFontCacheSize = FONT_CACHE_UNBOUNDED;
+
+        private long fontCacheTrimFloor = 0;
+
+        private File fontExtractionDir = null;
+
+        private CalligraphyMetricsListener metricsListener = null;
+
+        private Map<String, CalligraphyFontFamily> mFontFamilies = new HashMap<>();
+
         /**
          * This defaults to R.attr.fontPath. So only override if you want to use your own attrId.
          *
@@ -281,6 +513,21 @@ public class CalligraphyConfig {
             return this;
         }
 
+        /**
+         * Apply fonts to inflated TextViews in one pass once {@code LayoutInflater.inflate(...)}
+         * has built the whole tree, instead of as each view is created. Views sharing a style,
+         * TextAppearance and theme then resolve their font once per inflate, and the resolution
+         * isn't interleaved with parsing the layout.
+         *
+         * Fonts are still applied before {@code inflate(...)} returns, but a custom view reading
+         * a child TextView's Typeface in {@code onFinishInflate()} will see the platform one.
+         * Fonts set on the view itself, Toolbars and custom views are still applied straight away.
+         */
+        public Builder enableBatchedInflation() {
+            this.batchedInflation = true;
+            return this;
+        }
+
         /**
          * Add a custom style to get looked up. If you use a custom class that has a parent style
          * which is not part of the default android styles you will need to add it here.
@@ -293,6 +540,11 @@ public class CalligraphyConfig {
          *
          * {@code builder.addCustomStyle(MyTextField.class,R.attr.textFieldStyle}
          *
+         * Subclasses of a class added here use its style unless they have their own, this includes
+         * the classes Calligraphy has default styles for, e.g. add {@code AppCompatButton.class}
+         * with {@code android.R.attr.buttonStyle} to have your {@code AppCompatButton} subclasses
+         * use it. Without that, subclasses fall back to {@code textAppearance}.
+         *
          * @param styleClass             the class that related to the parent styleResource. null is ignored.
          * @param styleResourceAttribute e.g. {@code R.attr.textFieldStyle}, 0 is ignored.
          * @return this builder.
@@ -305,6 +557,7 @@ public class CalligraphyConfig {
 
         /**
          * Register custom non-{@code TextView}'s which implement {@code setTypeface} so they can have the Typeface applied during inflation.
+         * Subclasses and, for interfaces, implementations of the class are included.
          */
         public Builder addCustomViewWithSetTypeface(Class<?> clazz) {
             customViewTypefaceSupport = true;
@@ -312,6 +565,119 @@ public class CalligraphyConfig {
             return this;
         }
 
+        /**
+         * By default a font which fails to load is remembered as missing until a new config is
+         * set. Use this to try loading it again once {@code delayMillis} has passed.
+         *
+         * @param delayMillis millis to wait before retrying, 0 retries on every request,
+         *                    {@link #FONT_RETRY_NEVER} to keep the default.
+         * @return this builder.
+         */
+        public Builder setFontLoadRetryDelay(long delayMillis) {
+            this.fontLoadRetryDelay = delayMillis < 0 ? FONT_RETRY_NEVER : delayMillis;
+            return this;
+        }
+
+        /**
+         * Add a font to decode in the background when you call
+         * {@link TypefaceUtils#preloadAsync(android.content.Context)}. The default font is always
+         * preloaded.
+         *
+         * @param fontAssetPath a path to a font file in the assets folder, e.g. "fonts/Roboto-Bold.ttf",
+         *                      null or empty is ignored.
+         * @return this builder.
+         */
+        public Builder addPreloadFontPath(String fontAssetPath) {
+            if (TextUtils.isEmpty(fontAssetPath)) return this;
+            mPreloadFontPaths.add(fontAssetPath);
+            return this;
+        }
+
+        /**
+         * Preload every font file (ttf, otf, ttc) directly inside this assets folder when you call
+         * {@link TypefaceUtils#preloadAsync(android.content.Context)}.
+         *
+         * @param assetFolder a folder in the assets folder, e.g. "fonts", null or empty is ignored.
+         * @return this builder.
+         */
+        public Builder addPreloadFontFolder(String assetFolder) {
+            if (TextUtils.isEmpty(assetFolder)) return this;
+            mPreloadFontFolders.add(assetFolder);
+            return this;
+        }
+
+        /**
+         * Bound the font cache to roughly {@code maxBytes} of font files, evicting the least
+         * recently used fonts once it's exceeded. The default font and its family members are
+         * never evicted, nor is the font that has just loaded. A font bigger than maxBytes on its
+         * own is kept and logged, as evicting it would only decode it again on its next use.
+         * Evicted fonts are loaded again the next time they are needed.
+         *
+         * @param maxBytes total size of font files to keep, or {@link #FONT_CACHE_UNBOUNDED}.
+         * @return this builder.
+         */
+        public Builder setMaxFontCacheSize(long maxBytes) {
+            this.maxFontCacheSize = maxBytes < 0 ? FONT_CACHE_UNBOUNDED : maxBytes;
+            return this;
+        }
+
+        /**
+         * How much of the font cache to keep when memory is tight, defaults to 0 (only the default
+         * font). Only used once {@link TypefaceUtils#registerComponentCallbacks(android.content.Context)}
+         * has been called.
+         *
+         * @param floorBytes total size of font files to keep.
+         * @return this builder.
+         */
+        public Builder setFontCacheTrimFloor(long floorBytes) {
+            this.fontCacheTrimFloor = Math.max(0, floorBytes);
+            return this;
+        }
+
+        /**
+         * Copy asset fonts to this directory the first time they are loaded and load them from
+         * there afterwards. Loading from a file lets the platform map the font rather than read it
+         * out of the APK, which is noticeably cheaper for compressed assets on every cold start.
+         *
+         * Extracted fonts are reused while their size matches the asset, so if you might ship a
+         * changed font with the same size include your version code in the directory, e.g.
+         * {@code new File(context.getNoBackupFilesDir(), "fonts-" + BuildConfig.VERSION_CODE)}.
+         *
+         * @param dir an app private directory, null to load straight from the assets (the default).
+         * @return this builder.
+         */
+        public Builder setFontExtractionDir(File dir) {
+            this.fontExtractionDir = dir;
+            return this;
+        }
+
+        /**
+         * Register a font family, so wherever its regular font path is used the bold, italic or
+         * bold italic file is used for TextViews with that {@code textStyle}, instead of faking the
+         * style over the regular file.
+         *
+         * @param fontFamily the family, replaces any family with the same regular font path. null is ignored.
+         * @return this builder.
+         */
+        public Builder addFontFamily(CalligraphyFontFamily fontFamily) {
+            if (fontFamily == null) return this;
+            mFontFamilies.put(fontFamily.getFontPath(), fontFamily);
+            return this;
+        }
+
+        /**
+         * Report views visited and styled, where their fonts came from, font cache lookups and
+         * load times, deferred TextViews and reflection fallbacks to this listener. With no
+         * listener (the default) none of it is measured.
+         *
+         * @param listener called from any thread, null to stop reporting.
+         * @return this builder.
+         */
+        public Builder setMetricsListener(CalligraphyMetricsListener listener) {
+            this.metricsListener = listener;
+            return this;
+        }
+
         public CalligraphyConfig build() {
             this.isFontSet = !TextUtils.isEmpty(fontAssetPath);
             return new CalligraphyConfig(this);
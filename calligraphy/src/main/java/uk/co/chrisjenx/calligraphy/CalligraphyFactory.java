@@ -2,6 +2,7 @@ package uk.co.chrisjenx.calligraphy;
 
 import android.annotation.SuppressLint;
 import android.content.Context;
+import android.content.res.Resources;
 import android.graphics.Typeface;
 import android.support.v7.widget.Toolbar;
 import android.text.TextUtils;
@@ -10,11 +11,38 @@ import android.view.View;
 import android.widget.TextView;
 
 import java.lang.reflect.Method;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 
 class CalligraphyFactory {
 
     private static final String ACTION_BAR_TITLE = "action_bar_title";
     private static final String ACTION_BAR_SUBTITLE = "action_bar_subtitle";
+    /**
+     * The action_bar_title/action_bar_subtitle ids by resource package id (the top 8 bits of a
+     * view id), 0 until looked up, {@link View#NO_ID} if the package doesn't have one.
+     */
+    private static final int[] sActionBarTitleIds = new int[256];
+    private static final int[] sActionBarSubtitleIds = new int[256];
+    /**
+     * {@code setTypeface(Typeface)} by view class, {@link #NO_METHOD} if the class has none.
+     */
+    private static final Map<Class<?>, Object> sSetTypefaceMethods = new ConcurrentHashMap<>();
+    private static final Object NO_METHOD = new Object();
+
+    /**
+     * What {@link #onViewCreatedInternal} does with a view class, see {@link #getViewKind(Class)}.
+     */
+    static final int VIEW_IGNORED = 0;
+    static final int VIEW_TEXT_VIEW = 1;
+    static final int VIEW_TOOLBAR = 1 << 1;
+    static final int VIEW_HAS_TYPEFACE = 1 << 2;
+    static final int VIEW_REFLECTIVE_TYPEFACE = 1 << 3;
+
+    /**
+     * View kinds by class, for the config they were worked out under.
+     */
+    private static volatile ViewKinds sViewKinds = new ViewKinds(null);
 
     /**
      * Some styles are in sub styles, such as actionBarTextStyle etc..
@@ -23,22 +51,32 @@ class CalligraphyFactory {
      * @return 2 element array, default to -1 unless a style has been found.
      */
     protected static int[] getStyleForTextView(TextView view) {
-        final int[] styleIds = new int[]{-1, -1};
-        // Try to find the specific actionbar styles
-        if (isActionBarTitle(view)) {
-            styleIds[0] = android.R.attr.actionBarStyle;
-            styleIds[1] = android.R.attr.titleTextStyle;
-        } else if (isActionBarSubTitle(view)) {
-            styleIds[0] = android.R.attr.actionBarStyle;
-            styleIds[1] = android.R.attr.subtitleTextStyle;
-        }
-        if (styleIds[0] == -1) {
-            // Use TextAppearance as default style
-            styleIds[0] = CalligraphyConfig.get().getClassStyles().containsKey(view.getClass())
-                    ? CalligraphyConfig.get().getClassStyles().get(view.getClass())
-                    : android.R.attr.textAppearance;
-        }
-        return styleIds;
+        final int subStyleId = getSubStyleForTextView(view);
+        return new int[]{getStyleForTextView(view, subStyleId), subStyleId};
+    }
+
+    /**
+     * @param view       view to check.
+     * @param subStyleId from {@link #getSubStyleForTextView(TextView)}.
+     * @return the theme style attribute to look the font up in.
+     */
+    static int getStyleForTextView(TextView view, int subStyleId) {
+        if (subStyleId != -1) return android.R.attr.actionBarStyle;
+        // Use TextAppearance as default style
+        final int classStyle = CalligraphyConfig.get().getClassStyle(view.getClass());
+        return classStyle != CalligraphyConfig.NO_CLASS_STYLE ? classStyle : android.R.attr.textAppearance;
+    }
+
+    /**
+     * Try to find the specific actionbar styles.
+     *
+     * @param view view to check.
+     * @return the sub style of {@code actionBarStyle} to look the font up in, -1 if not in an action bar.
+     */
+    static int getSubStyleForTextView(TextView view) {
+        if (isActionBarTitle(view)) return android.R.attr.titleTextStyle;
+        if (isActionBarSubTitle(view)) return android.R.attr.subtitleTextStyle;
+        return -1;
     }
 
     /**
@@ -49,7 +87,7 @@ class CalligraphyFactory {
      */
     @SuppressLint("NewApi")
     protected static boolean isActionBarTitle(TextView view) {
-        if (matchesResourceIdName(view, ACTION_BAR_TITLE)) return true;
+        if (isActionBarTitleId(view)) return true;
         if (parentIsToolbarV7(view)) {
             final android.support.v7.widget.Toolbar parent = (android.support.v7.widget.Toolbar) view.getParent();
             return TextUtils.equals(parent.getTitle(), view.getText());
@@ -65,7 +103,7 @@ class CalligraphyFactory {
      */
     @SuppressLint("NewApi")
     protected static boolean isActionBarSubTitle(TextView view) {
-        if (matchesResourceIdName(view, ACTION_BAR_SUBTITLE)) return true;
+        if (isActionBarSubtitleId(view)) return true;
         if (parentIsToolbarV7(view)) {
             final android.support.v7.widget.Toolbar parent = (android.support.v7.widget.Toolbar) view.getParent();
             return TextUtils.equals(parent.getSubtitle(), view.getText());
@@ -90,10 +128,84 @@ class CalligraphyFactory {
         return resourceEntryName.equalsIgnoreCase(matches);
     }
 
+    /**
+     * Same as {@code matchesResourceIdName(view, "action_bar_title")} but without looking up the
+     * view's resource name every time.
+     */
+    static boolean isActionBarTitleId(View view) {
+        return matchesPackageResourceId(view, sActionBarTitleIds, ACTION_BAR_TITLE);
+    }
+
+    /**
+     * Same as {@code matchesResourceIdName(view, "action_bar_subtitle")} but without looking up
+     * the view's resource name every time.
+     */
+    static boolean isActionBarSubtitleId(View view) {
+        return matchesPackageResourceId(view, sActionBarSubtitleIds, ACTION_BAR_SUBTITLE);
+    }
+
+    /**
+     * Checks the view id against the id named {@code name} in the view id's own package,
+     * looking that up once per package.
+     */
+    private static boolean matchesPackageResourceId(View view, int[] idsByPackage, String name) {
+        final int id = view.getId();
+        if (id == View.NO_ID) return false;
+        final int packageId = id >>> 24;
+        // Ids from View.generateViewId() have no package, and never name a resource.
+        if (packageId == 0) return false;
+        int matchingId = idsByPackage[packageId];
+        if (matchingId == 0) {
+            // Racing threads look up the same id, so no need to lock.
+            final String packageName;
+            try {
+                packageName = view.getResources().getResourcePackageName(id);
+            } catch (Resources.NotFoundException e) {
+                // This id isn't a resource, another id in the package may still be, so don't cache.
+                return false;
+            }
+            final int resolvedId = view.getResources().getIdentifier(name, "id", packageName);
+            // The package resolved, so it really has no id by that name.
+            matchingId = resolvedId != 0 ? resolvedId : View.NO_ID;
+            idsByPackage[packageId] = matchingId;
+        }
+        return matchingId == id;
+    }
+
+    /**
+     * Factories by font attribute, see {@link #get(int)}.
+     */
+    private static final ConcurrentHashMap<Integer, CalligraphyFactory> sFactories = new ConcurrentHashMap<>();
+
+    /**
+     * A factory only holds caches and nothing tied to a Context, so every inflater using the same
+     * font attribute, clones included, shares one and starts with its caches warm.
+     *
+     * @return the factory for this font attribute.
+     */
+    static CalligraphyFactory get(int attributeId) {
+        CalligraphyFactory factory = sFactories.get(attributeId);
+        if (factory == null) {
+            factory = new CalligraphyFactory(attributeId);
+            final CalligraphyFactory existing = sFactories.putIfAbsent(attributeId, factory);
+            if (existing != null) factory = existing;
+        }
+        return factory;
+    }
+
     private final int[] mAttributeId;
+    /**
+     * The font attribute and android:textAppearance, fetched together in one TypedArray.
+     */
+    private final int[] mStyleAttributes;
+    /**
+     * Name of the font attribute, looked up on first use.
+     */
+    private volatile String mAttributeName;
 
     public CalligraphyFactory(int attributeId) {
         this.mAttributeId = new int[]{attributeId};
+        this.mStyleAttributes = CalligraphyUtils.getStyleAttributes(mAttributeId);
     }
 
     /**
@@ -106,15 +218,60 @@ class CalligraphyFactory {
      */
 
     public View onViewCreated(View view, Context context, AttributeSet attrs) {
-        if (view != null && view.getTag(R.id.calligraphy_tag_id) != Boolean.TRUE) {
-            onViewCreatedInternal(view, context, attrs);
-            view.setTag(R.id.calligraphy_tag_id, Boolean.TRUE);
-        }
+        if (view == null) return null;
+        final CalligraphyMetricsListener listener = CalligraphyConfig.get().getMetricsListener();
+        if (listener != null) listener.onViewVisited(view);
+        // Most views can never take a font, skip them without touching the view.
+        final int kind = getViewKind(view.getClass());
+        if (kind == VIEW_IGNORED) return view;
+        // Plain TextViews are skipped once their Typeface is one of ours, only mark the rest as
+        // done, a keyed tag costs every view that gets one a SparseArray.
+        final boolean marked = kind != VIEW_TEXT_VIEW;
+        if (marked && view.getTag(R.id.calligraphy_tag_id) == Boolean.TRUE) return view;
+        onViewCreatedInternal(view, context, attrs, kind);
+        if (marked) view.setTag(R.id.calligraphy_tag_id, Boolean.TRUE);
         return view;
     }
 
+    /**
+     * Works out once per class, and again if the config changes, which of the font paths below
+     * apply to its views.
+     *
+     * @return {@link #VIEW_IGNORED} or a mix of {@link #VIEW_TEXT_VIEW}, {@link #VIEW_TOOLBAR},
+     * {@link #VIEW_HAS_TYPEFACE} and {@link #VIEW_REFLECTIVE_TYPEFACE}.
+     */
+    static int getViewKind(Class<? extends View> viewClass) {
+        final CalligraphyConfig config = CalligraphyConfig.get();
+        ViewKinds viewKinds = sViewKinds;
+        if (viewKinds.mConfig != config) {
+            viewKinds = new ViewKinds(config);
+            sViewKinds = viewKinds;
+        }
+        Integer kind = viewKinds.mKinds.get(viewClass);
+        if (kind == null) {
+            int newKind = VIEW_IGNORED;
+            if (TextView.class.isAssignableFrom(viewClass)) newKind |= VIEW_TEXT_VIEW;
+            if (CalligraphyUtils.canCheckForV7Toolbar() && Toolbar.class.isAssignableFrom(viewClass)) newKind |= VIEW_TOOLBAR;
+            if (HasTypeface.class.isAssignableFrom(viewClass)) {
+                newKind |= VIEW_HAS_TYPEFACE;
+            } else if (config.isCustomViewTypefaceSupport() && config.isCustomViewHasTypeface(viewClass)
+                    && getSetTypefaceMethod(viewClass) != null) {
+                newKind |= VIEW_REFLECTIVE_TYPEFACE;
+            }
+            kind = newKind;
+            viewKinds.mKinds.put(viewClass, kind);
+        }
+        return kind;
+    }
+
     void onViewCreatedInternal(View view, final Context context, AttributeSet attrs) {
-        if (view instanceof TextView) {
+        onViewCreatedInternal(view, context, attrs, getViewKind(view.getClass()));
+    }
+
+    private void onViewCreatedInternal(View view, final Context context, AttributeSet attrs, int kind) {
+        // Font set on the view's xml, pulled once and shared by everything below.
+        String viewFont = null;
+        if ((kind & VIEW_TEXT_VIEW) != 0) {
             // Fast path the setting of TextView's font, means if we do some delayed setting of font,
             // which has already been set by use we skip this TextView (mainly for inflating custom,
             // TextView's inside the Toolbar/ActionBar).
@@ -124,47 +281,75 @@ class CalligraphyFactory {
             // Try to get typeface attribute value
             // Since we're not using namespace it's a little bit tricky
 
-            // Check xml attrs, style attrs and text appearance for font path
-            String textViewFont = resolveFontPath(context, attrs);
-
-            // Try theme attributes
-            if (TextUtils.isEmpty(textViewFont)) {
-                final int[] styleForTextView = getStyleForTextView((TextView) view);
-                if (styleForTextView[1] != -1)
-                    textViewFont = CalligraphyUtils.pullFontPathFromTheme(context, styleForTextView[0], styleForTextView[1], mAttributeId);
-                else
-                    textViewFont = CalligraphyUtils.pullFontPathFromTheme(context, styleForTextView[0], mAttributeId);
-            }
+            // Check xml attrs, then style attrs, text appearance and theme attributes
+            viewFont = pullFontPathFromView(context, attrs);
 
             // Still need to defer the Native action bar, appcompat-v7:21+ uses the Toolbar underneath. But won't match these anyway.
-            final boolean deferred = matchesResourceIdName(view, ACTION_BAR_TITLE) || matchesResourceIdName(view, ACTION_BAR_SUBTITLE);
+            final boolean deferred = isActionBarTitleId(view) || isActionBarSubtitleId(view);
 
-            CalligraphyUtils.applyFontToTextView(context, (TextView) view, CalligraphyConfig.get(), textViewFont, deferred);
+            if (!TextUtils.isEmpty(viewFont)) {
+                final int applied = CalligraphyUtils.applyFontToTextView(context, (TextView) view, CalligraphyConfig.get(), viewFont, deferred);
+                reportTextViewStyled(view, applied, CalligraphyMetricsListener.SOURCE_XML);
+            } else {
+                final int subStyleForTextView = getSubStyleForTextView((TextView) view);
+                final int styleForTextView = getStyleForTextView((TextView) view, subStyleForTextView);
+                final int styleRes = CalligraphyUtils.getStyleResource(context, attrs);
+                final int textAppearanceRes = FontResolutionCache.getTextAppearanceResource(attrs);
+                final InflationBatch batch = InflationBatch.current();
+                if (batch != null && attrs != null && styleRes != FontResolutionCache.UNCACHEABLE_STYLE
+                        && textAppearanceRes != FontResolutionCache.UNCACHEABLE_TEXT_APPEARANCE) {
+                    // Everything we need from attrs is in the key, resolve once the tree is built.
+                    batch.add(this, context, (TextView) view, styleRes, textAppearanceRes, styleForTextView, subStyleForTextView, deferred);
+                } else {
+                    final FontResolution resolution = resolveFontPathCached(context, attrs, styleRes, textAppearanceRes, styleForTextView, subStyleForTextView);
+                    final int applied = CalligraphyUtils.applyFontToTextView(context, (TextView) view, CalligraphyConfig.get(), resolution.fontPath, deferred);
+                    reportTextViewStyled(view, applied, resolution.source);
+                }
+            }
         }
 
         // AppCompat API21+ The ActionBar doesn't inflate default Title/SubTitle, we need to scan the
         // Toolbar(Which underlies the ActionBar) for its children.
-        if (CalligraphyUtils.canCheckForV7Toolbar() && view instanceof android.support.v7.widget.Toolbar) {
+        if ((kind & VIEW_TOOLBAR) != 0) {
             applyFontToToolbar((Toolbar) view);
         }
 
         // Try to set typeface for custom views using interface method or via reflection if available
-        if (view instanceof HasTypeface) {
-            Typeface typeface = getDefaultTypeface(context, resolveFontPath(context, attrs));
+        if ((kind & VIEW_HAS_TYPEFACE) != 0) {
+            final FontResolution resolution = resolveFontPath(context, attrs, view instanceof TextView ? viewFont : pullFontPathFromView(context, attrs));
+            Typeface typeface = getDefaultTypeface(context, resolution.fontPath);
             if (typeface != null) {
                 ((HasTypeface) view).setTypeface(typeface);
+                reportViewStyled(view, resolution.source);
             }
-        } else if (CalligraphyConfig.get().isCustomViewTypefaceSupport() && CalligraphyConfig.get().isCustomViewHasTypeface(view)) {
-            final Method setTypeface = ReflectionUtils.getMethod(view.getClass(), "setTypeface");
-            String fontPath = resolveFontPath(context, attrs);
-            Typeface typeface = getDefaultTypeface(context, fontPath);
+        } else if ((kind & VIEW_REFLECTIVE_TYPEFACE) != 0) {
+            final Method setTypeface = getSetTypefaceMethod(view.getClass());
+            final FontResolution resolution = resolveFontPath(context, attrs, view instanceof TextView ? viewFont : pullFontPathFromView(context, attrs));
+            Typeface typeface = getDefaultTypeface(context, resolution.fontPath);
             if (setTypeface != null && typeface != null) {
                 ReflectionUtils.invokeMethod(view, setTypeface, typeface);
+                final CalligraphyMetricsListener listener = CalligraphyConfig.get().getMetricsListener();
+                if (listener != null) listener.onReflectiveFallback(view.getClass().getName());
+                reportViewStyled(view, resolution.source);
             }
         }
 
     }
 
+    /**
+     * @return the view class's public {@code setTypeface(Typeface)}, looked up once per class,
+     * null if it doesn't have one.
+     */
+    private static Method getSetTypefaceMethod(Class<?> viewClass) {
+        Object method = sSetTypefaceMethods.get(viewClass);
+        if (method == null) {
+            method = ReflectionUtils.getMethod(viewClass, "setTypeface", Typeface.class);
+            if (method == null) method = NO_METHOD;
+            sSetTypefaceMethods.put(viewClass, method);
+        }
+        return method != NO_METHOD ? (Method) method : null;
+    }
+
     private Typeface getDefaultTypeface(Context context, String fontPath) {
         if (TextUtils.isEmpty(fontPath)) {
             fontPath = CalligraphyConfig.get().getFontPath();
@@ -175,47 +360,156 @@ class CalligraphyFactory {
         return null;
     }
 
+    /**
+     * Pull the font from the view's xml attributes, see
+     * {@link CalligraphyUtils#pullFontPathFromView(Context, AttributeSet, String)}.
+     */
+    private String pullFontPathFromView(Context context, AttributeSet attrs) {
+        if (attrs == null) return null;
+        String attributeName = mAttributeName;
+        if (attributeName == null) {
+            attributeName = CalligraphyUtils.getAttributeName(context, mAttributeId[0]);
+            mAttributeName = attributeName;
+        }
+        return CalligraphyUtils.pullFontPathFromView(context, attrs, attributeName);
+    }
+
     /**
      * Resolving font path from xml attrs, style attrs or text appearance
+     *
+     * @param viewFont the font from the view's xml attributes, if any.
      */
-    private String resolveFontPath(Context context, AttributeSet attrs) {
+    private FontResolution resolveFontPath(Context context, AttributeSet attrs, String viewFont) {
         // Try view xml attributes
-        String textViewFont = CalligraphyUtils.pullFontPathFromView(context, attrs, mAttributeId);
+        if (!TextUtils.isEmpty(viewFont)) {
+            return FontResolution.of(viewFont, CalligraphyMetricsListener.SOURCE_XML);
+        }
+        return resolveFontPathCached(context, attrs, CalligraphyUtils.getStyleResource(context, attrs),
+                FontResolutionCache.getTextAppearanceResource(attrs), FontResolutionCache.NO_THEME_STYLE, -1);
+    }
+
+    /**
+     * Applies the font to a TextView recorded by an {@link InflationBatch}, its AttributeSet is
+     * long gone so it's resolved from the keys taken from it.
+     */
+    void applyFontToTextView(Context context, TextView view, int styleRes, int textAppearanceRes,
+                             int styleAttr, int subStyleAttr, boolean deferred) {
+        if (TypefaceUtils.isLoaded(view.getTypeface())) return;
+        final FontResolution resolution = resolveFontPathCached(context, null, styleRes, textAppearanceRes, styleAttr, subStyleAttr);
+        final int applied = CalligraphyUtils.applyFontToTextView(context, view, CalligraphyConfig.get(), resolution.fontPath, deferred);
+        reportTextViewStyled(view, applied, resolution.source);
+    }
+
+    /**
+     * Resolves the font path from style attrs, text appearance and, if styleAttr is set, the
+     * theme. These only depend on the theme, the view's style and textAppearance and the style
+     * attrs, so the answer is cached on them.
+     *
+     * @param attrs             the view's attributes, or null to resolve from styleRes and
+     *                          textAppearanceRes alone.
+     * @param styleRes          from {@link CalligraphyUtils#getStyleResource(Context, AttributeSet)}.
+     * @param textAppearanceRes from {@link FontResolutionCache#getTextAppearanceResource(AttributeSet)}.
+     * @return the font path and where it was found, {@link FontResolution#NONE} if none found.
+     */
+    private FontResolution resolveFontPathCached(Context context, AttributeSet attrs, int styleRes, int textAppearanceRes,
+                                                 int styleAttr, int subStyleAttr) {
+        final boolean cacheable = styleRes != FontResolutionCache.UNCACHEABLE_STYLE
+                && textAppearanceRes != FontResolutionCache.UNCACHEABLE_TEXT_APPEARANCE;
+        final FontResolutionCache cache = cacheable ? FontResolutionCache.get(context) : null;
+        FontResolution resolution = cacheable ? cache.get(mAttributeId[0], styleRes, textAppearanceRes, styleAttr, subStyleAttr) : null;
+        if (resolution != null) return resolution;
 
-        // Try view style attributes
-        if (TextUtils.isEmpty(textViewFont)) {
-            textViewFont = CalligraphyUtils.pullFontPathFromStyle(context, attrs, mAttributeId);
+        // Try view style attributes, then View TextAppearance
+        resolution = attrs != null
+                ? CalligraphyUtils.pullFontPathFromStyleOrTextAppearance(context, attrs, mStyleAttributes, mAttributeId)
+                : CalligraphyUtils.pullFontPathFromStyleOrTextAppearance(context, styleRes, textAppearanceRes, mStyleAttributes, mAttributeId);
+
+        // Try theme attributes
+        if (resolution == FontResolution.NONE && styleAttr != FontResolutionCache.NO_THEME_STYLE) {
+            final String themeFont;
+            if (subStyleAttr != -1)
+                themeFont = CalligraphyUtils.pullFontPathFromTheme(context, styleAttr, subStyleAttr, mAttributeId);
+            else
+                themeFont = CalligraphyUtils.pullFontPathFromTheme(context, styleAttr, mAttributeId);
+            // Anything other than the theme's TextAppearance and ActionBar styles is a class style.
+            final boolean classStyle = subStyleAttr == -1 && styleAttr != android.R.attr.textAppearance;
+            resolution = FontResolution.of(themeFont, classStyle
+                    ? CalligraphyMetricsListener.SOURCE_CLASS_STYLE : CalligraphyMetricsListener.SOURCE_THEME);
         }
 
-        // Try View TextAppearance
-        if (TextUtils.isEmpty(textViewFont)) {
-            textViewFont = CalligraphyUtils.pullFontPathFromTextAppearance(context, attrs, mAttributeId);
+        if (cacheable) {
+            cache.put(mAttributeId[0], styleRes, textAppearanceRes, styleAttr, subStyleAttr, resolution);
         }
+        return resolution;
+    }
+
+    /**
+     * Tells the metrics listener, if there is one, the view got a font from this source.
+     */
+    private static void reportViewStyled(View view, int source) {
+        final CalligraphyMetricsListener listener = CalligraphyConfig.get().getMetricsListener();
+        if (listener != null) listener.onViewStyled(view, source);
+    }
 
-        return textViewFont;
+    /**
+     * Reports the font {@link CalligraphyUtils#applyFontToTextView(Context, TextView, CalligraphyConfig, String, boolean)}
+     * applied, the default font if the resolved one couldn't be loaded, nothing if neither was.
+     */
+    private static void reportTextViewStyled(View view, int applied, int source) {
+        if (applied == CalligraphyUtils.FONT_APPLIED) {
+            reportViewStyled(view, source);
+        } else if (applied == CalligraphyUtils.DEFAULT_FONT_APPLIED) {
+            reportViewStyled(view, CalligraphyMetricsListener.SOURCE_DEFAULT);
+        }
     }
 
     /**
-     * Will forcibly set text on the views then remove ones that didn't have copy.
+     * Applies fonts to the Toolbar's title and subtitle views. The Toolbar only creates them once
+     * it's given a title or subtitle, often long after inflation, so they're styled as they show
+     * up in its next layout.
      *
      * @param view toolbar view.
      */
     private void applyFontToToolbar(final Toolbar view) {
-        final CharSequence previousTitle = view.getTitle();
-        final CharSequence previousSubtitle = view.getSubtitle();
-        // The toolbar inflates both the title and the subtitle views lazily but luckily they do it
-        // synchronously when you set a title and a subtitle programmatically.
-        // So we set a title and a subtitle to something, then get the views, then revert.
-        view.setTitle("uk.co.chrisjenx.calligraphy:toolbar_title");
-        view.setSubtitle("uk.co.chrisjenx.calligraphy:toolbar_subtitle");
-
-        // Iterate through the children to run post inflation on them
+        applyFontToToolbarChildren(view);
+        view.addOnLayoutChangeListener(new ToolbarLayoutListener(this));
+    }
+
+    private void applyFontToToolbarChildren(final Toolbar view) {
         final int childCount = view.getChildCount();
         for (int i = 0; i < childCount; i++) {
-            onViewCreated(view.getChildAt(i), view.getContext(), null);
+            final View child = view.getChildAt(i);
+            // Other children were inflated and have been through here already.
+            if (child instanceof TextView && (isActionBarTitle((TextView) child) || isActionBarSubTitle((TextView) child))) {
+                onViewCreated(child, view.getContext(), null);
+            }
+        }
+    }
+
+    /**
+     * Styles title and subtitle views the Toolbar added since it last laid out, already styled
+     * ones are skipped by their Typeface.
+     */
+    private static final class ToolbarLayoutListener implements View.OnLayoutChangeListener {
+
+        private final CalligraphyFactory mFactory;
+
+        ToolbarLayoutListener(CalligraphyFactory factory) {
+            mFactory = factory;
+        }
+
+        @Override
+        public void onLayoutChange(View v, int left, int top, int right, int bottom, int oldLeft, int oldTop, int oldRight, int oldBottom) {
+            mFactory.applyFontToToolbarChildren((Toolbar) v);
+        }
+    }
+
+    private static final class ViewKinds {
+        final CalligraphyConfig mConfig;
+        final Map<Class<?>, Integer> mKinds = new ConcurrentHashMap<>();
+
+        ViewKinds(CalligraphyConfig config) {
+            mConfig = config;
         }
-        // Remove views from view if they didn't have copy set.
-        view.setTitle(previousTitle);
-        view.setSubtitle(previousSubtitle);
     }
 }
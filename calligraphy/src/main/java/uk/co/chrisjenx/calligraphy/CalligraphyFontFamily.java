@@ -0,0 +1,188 @@
+package uk.co.chrisjenx.calligraphy;
+
+import android.graphics.Typeface;
+import android.text.TextUtils;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * The files making up one font family, so a TextView with {@code textStyle="bold"} gets the real
+ * bold file rather than the regular one drawn with fake bold.
+ * <pre>
+ * {@code
+ * new CalligraphyFontFamily.Builder("fonts/Roboto-Regular.ttf")
+ *         .setBold("fonts/Roboto-Bold.ttf")
+ *         .setItalic("fonts/Roboto-Italic.ttf")
+ *         .setBoldItalic("fonts/Roboto-BoldItalic.ttf")
+ *         .addFont(300, false, "fonts/Roboto-Light.ttf")
+ *         .build();
+ * }
+ * </pre>
+ * Register it with {@link CalligraphyConfig.Builder#addFontFamily(CalligraphyFontFamily)}, then
+ * wherever the regular path is used as a font (fontPath, styles, themes or the default font) the
+ * member matching the TextView's style is used instead.
+ */
+public final class CalligraphyFontFamily {
+
+    public static final int WEIGHT_NORMAL = 400;
+    public static final int WEIGHT_BOLD = 700;
+    /**
+     * Members this heavy or heavier are treated as bold.
+     */
+    private static final int WEIGHT_BOLD_THRESHOLD = 600;
+
+    private final List<Member> mMembers;
+    /**
+     * Best member for each of {@link Typeface#NORMAL}, {@link Typeface#BOLD},
+     * {@link Typeface#ITALIC} and {@link Typeface#BOLD_ITALIC}, worked out up front.
+     */
+    private final Member[] mMembersByStyle = new Member[4];
+
+    private CalligraphyFontFamily(Builder builder) {
+        mMembers = Collections.unmodifiableList(new ArrayList<>(builder.mMembers));
+        for (int style = Typeface.NORMAL; style <= Typeface.BOLD_ITALIC; style++) {
+            mMembersByStyle[style] = findMember(
+                    (style & Typeface.BOLD) != 0 ? WEIGHT_BOLD : WEIGHT_NORMAL,
+                    (style & Typeface.ITALIC) != 0);
+        }
+    }
+
+    /**
+     * @return the regular font path, which the family is registered under.
+     */
+    public String getFontPath() {
+        return mMembers.get(0).path;
+    }
+
+    /**
+     * @param style {@link Typeface#NORMAL}, {@link Typeface#BOLD}, {@link Typeface#ITALIC} or
+     *              {@link Typeface#BOLD_ITALIC}.
+     * @return the font path closest to that style.
+     */
+    public String getFontPath(int style) {
+        return mMembersByStyle[style & Typeface.BOLD_ITALIC].path;
+    }
+
+    /**
+     * @param weight 100 to 900, 400 being regular and 700 bold.
+     * @param italic prefer an italic member.
+     * @return the font path closest to the weight and slant.
+     */
+    public String getFontPath(int weight, boolean italic) {
+        return findMember(weight, italic).path;
+    }
+
+    /**
+     * @return the style the member at this path really has, bold and/or italic, or -1 if the path
+     * isn't in this family.
+     */
+    int getDeclaredStyle(String path) {
+        for (Member member : mMembers) {
+            if (member.path.equals(path)) return member.getStyle();
+        }
+        return -1;
+    }
+
+    /**
+     * @return every font path in the family.
+     */
+    List<String> getFontPaths() {
+        final List<String> paths = new ArrayList<>(mMembers.size());
+        for (Member member : mMembers) {
+            paths.add(member.path);
+        }
+        return paths;
+    }
+
+    /**
+     * Same slant first, then the closest weight, preferring heavier for bold and lighter for
+     * regular, much like CSS font matching.
+     */
+    private Member findMember(int weight, boolean italic) {
+        Member best = null;
+        for (Member member : mMembers) {
+            if (best == null || isBetter(member, best, weight, italic)) best = member;
+        }
+        return best;
+    }
+
+    private static boolean isBetter(Member candidate, Member best, int weight, boolean italic) {
+        if (candidate.italic != best.italic) return candidate.italic == italic;
+        final int candidateDistance = Math.abs(candidate.weight - weight);
+        final int bestDistance = Math.abs(best.weight - weight);
+        if (candidateDistance != bestDistance) return candidateDistance < bestDistance;
+        return weight >= WEIGHT_BOLD_THRESHOLD ? candidate.weight > best.weight : candidate.weight < best.weight;
+    }
+
+    private static final class Member {
+        final int weight;
+        final boolean italic;
+        final String path;
+
+        Member(int weight, boolean italic, String path) {
+            this.weight = weight;
+            this.italic = italic;
+            this.path = path;
+        }
+
+        int getStyle() {
+            return (weight >= WEIGHT_BOLD_THRESHOLD ? Typeface.BOLD : Typeface.NORMAL)
+                    | (italic ? Typeface.ITALIC : Typeface.NORMAL);
+        }
+    }
+
+    public static class Builder {
+
+        private final List<Member> mMembers = new ArrayList<>();
+
+        /**
+         * @param regularFontPath a path to the regular font file in the assets folder, e.g.
+         *                        "fonts/Roboto-Regular.ttf".
+         */
+        public Builder(String regularFontPath) {
+            if (TextUtils.isEmpty(regularFontPath)) {
+                throw new IllegalArgumentException("regularFontPath is empty");
+            }
+            mMembers.add(new Member(WEIGHT_NORMAL, false, regularFontPath));
+        }
+
+        public Builder setBold(String fontPath) {
+            return addFont(WEIGHT_BOLD, false, fontPath);
+        }
+
+        public Builder setItalic(String fontPath) {
+            return addFont(WEIGHT_NORMAL, true, fontPath);
+        }
+
+        public Builder setBoldItalic(String fontPath) {
+            return addFont(WEIGHT_BOLD, true, fontPath);
+        }
+
+        /**
+         * Add a member by weight, replacing any member with the same weight and slant.
+         *
+         * @param weight   100 to 900, 400 being regular and 700 bold.
+         * @param italic   is this the italic of that weight.
+         * @param fontPath a path to a font file in the assets folder, null or empty is ignored.
+         * @return this builder.
+         */
+        public Builder addFont(int weight, boolean italic, String fontPath) {
+            if (TextUtils.isEmpty(fontPath)) return this;
+            for (int i = 0; i < mMembers.size(); i++) {
+                final Member member = mMembers.get(i);
+                if (member.weight == weight && member.italic == italic) {
+                    mMembers.set(i, new Member(weight, italic, fontPath));
+                    return this;
+                }
+            }
+            mMembers.add(new Member(weight, italic, fontPath));
+            return this;
+        }
+
+        public CalligraphyFontFamily build() {
+            return new CalligraphyFontFamily(this);
+        }
+    }
+}
@@ -0,0 +1,123 @@
+package uk.co.chrisjenx.calligraphy;
+
+import android.app.Activity;
+import android.content.Context;
+import android.content.res.AssetManager;
+import android.content.res.Resources;
+import android.text.TextUtils;
+import android.util.Log;
+
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Properties;
+import java.util.Set;
+
+/**
+ * Warms the fonts a screen needs before it's inflated, using the index generated at build time by
+ * {@code gradle/calligraphy-font-index.gradle}.
+ * <pre>
+ * {@code
+ * protected void onCreate(Bundle savedInstanceState) {
+ *     super.onCreate(savedInstanceState);
+ *     CalligraphyFontIndex.preload(this, R.layout.activity_main);
+ *     setContentView(R.layout.activity_main);
+ * }
+ * }
+ * </pre>
+ * Without the generated index this only preloads the default font.
+ */
+public final class CalligraphyFontIndex {
+
+    private static final String INDEX_ASSET = "calligraphy/font_index.properties";
+    private static final String LAYOUT_PREFIX = "layout.";
+    private static final String ACTIVITY_PREFIX = "activity.";
+
+    private static volatile Properties sIndex;
+
+    /**
+     * Start loading every font the activity's theme and the layout can use, plus the default font.
+     *
+     * @param activity    the activity about to inflate the layout.
+     * @param layoutResId the layout about to be inflated.
+     * @return handle to wait on or observe the preload.
+     */
+    public static FontPreload preload(Activity activity, int layoutResId) {
+        final Set<String> fonts = new LinkedHashSet<>();
+        final String defaultFont = CalligraphyConfig.get().getFontPath();
+        if (!TextUtils.isEmpty(defaultFont)) fonts.add(defaultFont);
+        fonts.addAll(getActivityFonts(activity, activity.getClass()));
+        fonts.addAll(getLayoutFonts(activity, layoutResId));
+        return TypefaceUtils.preloadAsync(activity.getAssets(), fonts.toArray(new String[fonts.size()]));
+    }
+
+    /**
+     * Start loading every font the layout can use, from its views, their styles and their
+     * TextAppearances, including layouts it includes.
+     *
+     * @param context     context to read the index with.
+     * @param layoutResId the layout about to be inflated.
+     * @return handle to wait on or observe the preload.
+     */
+    public static FontPreload preloadLayout(Context context, int layoutResId) {
+        final List<String> fonts = getLayoutFonts(context, layoutResId);
+        return TypefaceUtils.preloadAsync(context.getAssets(), fonts.toArray(new String[fonts.size()]));
+    }
+
+    /**
+     * @return the font paths the layout can use, empty if it's not in the index.
+     */
+    public static List<String> getLayoutFonts(Context context, int layoutResId) {
+        final String layoutName;
+        try {
+            layoutName = context.getResources().getResourceEntryName(layoutResId);
+        } catch (Resources.NotFoundException e) {
+            return Collections.emptyList();
+        }
+        return getFonts(context.getAssets(), LAYOUT_PREFIX + layoutName);
+    }
+
+    /**
+     * @return the font paths the activity's theme (or the application theme) can give its views,
+     * empty if it's not in the index.
+     */
+    public static List<String> getActivityFonts(Context context, Class<? extends Activity> activityClass) {
+        return getFonts(context.getAssets(), ACTIVITY_PREFIX + activityClass.getName());
+    }
+
+    private static List<String> getFonts(AssetManager assetManager, String key) {
+        final String fonts = getIndex(assetManager).getProperty(key);
+        if (TextUtils.isEmpty(fonts)) return Collections.emptyList();
+        final List<String> fontList = new ArrayList<>();
+        Collections.addAll(fontList, TextUtils.split(fonts, ","));
+        return fontList;
+    }
+
+    private static Properties getIndex(AssetManager assetManager) {
+        Properties index = sIndex;
+        if (index == null) {
+            index = new Properties();
+            try {
+                final InputStream in = assetManager.open(INDEX_ASSET);
+                try {
+                    index.load(in);
+                } finally {
+                    in.close();
+                }
+            } catch (FileNotFoundException e) {
+                Log.d("Calligraphy", "No font index found, apply calligraphy-font-index.gradle to generate one.");
+            } catch (IOException e) {
+                Log.w("Calligraphy", "Can't read the font index.", e);
+            }
+            sIndex = index;
+        }
+        return index;
+    }
+
+    private CalligraphyFontIndex() {
+    }
+}
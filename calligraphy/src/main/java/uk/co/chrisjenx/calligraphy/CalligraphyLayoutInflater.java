@@ -4,14 +4,20 @@ import android.annotation.TargetApi;
 import android.content.Context;
 import android.os.Build;
 import android.util.AttributeSet;
+import android.view.InflateException;
 import android.view.LayoutInflater;
 import android.view.View;
 import android.view.ViewGroup;
+import android.view.ViewStub;
 
 import org.xmlpull.v1.XmlPullParser;
 
+import java.lang.reflect.Constructor;
 import java.lang.reflect.Field;
+import java.lang.reflect.InvocationTargetException;
 import java.lang.reflect.Method;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 
 /**
  * Created by chris on 19/12/2013
@@ -24,23 +30,37 @@ class CalligraphyLayoutInflater extends LayoutInflater implements CalligraphyAct
             "android.webkit."
     };
 
+    /**
+     * Cached in {@link #sClassPrefixes} for names that aren't under any of our prefixes.
+     */
+    private static final String NO_CLASS_PREFIX = "";
+    /**
+     * The {@link #sClassPrefixList} entry each bare tag name resolved with.
+     */
+    private static final Map<String, String> sClassPrefixes = new ConcurrentHashMap<>();
+
     private final int mAttributeId;
     private final CalligraphyFactory mCalligraphyFactory;
     // Reflection Hax
     private boolean mSetPrivateFactory = false;
-    private Field mConstructorArgs = null;
+    private static volatile Field sConstructorArgs = null;
+    /**
+     * Custom view constructors by tag name, including names that didn't resolve, one per
+     * ClassLoader the name was looked up with.
+     */
+    private static final Map<String, ViewConstructor> sViewConstructors = new ConcurrentHashMap<>();
 
     protected CalligraphyLayoutInflater(Context context, int attributeId) {
         super(context);
         mAttributeId = attributeId;
-        mCalligraphyFactory = new CalligraphyFactory(attributeId);
+        mCalligraphyFactory = CalligraphyFactory.get(attributeId);
         setUpLayoutFactories(false);
     }
 
     protected CalligraphyLayoutInflater(LayoutInflater original, Context newContext, int attributeId, final boolean cloned) {
         super(original, newContext);
         mAttributeId = attributeId;
-        mCalligraphyFactory = new CalligraphyFactory(attributeId);
+        mCalligraphyFactory = CalligraphyFactory.get(attributeId);
         setUpLayoutFactories(cloned);
     }
 
@@ -57,7 +77,18 @@ class CalligraphyLayoutInflater extends LayoutInflater implements CalligraphyAct
     @Override
     public View inflate(XmlPullParser parser, ViewGroup root, boolean attachToRoot) {
         setPrivateFactoryInternal();
-        return super.inflate(parser, root, attachToRoot);
+        final boolean batched = CalligraphyConfig.get().isBatchedInflation();
+        FontResolutionCache.beginInflation();
+        if (batched) InflationBatch.begin();
+        try {
+            return super.inflate(parser, root, attachToRoot);
+        } finally {
+            try {
+                if (batched) InflationBatch.end();
+            } finally {
+                FontResolutionCache.endInflation();
+            }
+        }
     }
 
     /**
@@ -112,9 +143,7 @@ class CalligraphyLayoutInflater extends LayoutInflater implements CalligraphyAct
             return;
         }
 
-        final Method setPrivateFactoryMethod = ReflectionUtils
-                .getMethod(LayoutInflater.class, "setPrivateFactory");
-
+        final Method setPrivateFactoryMethod = SetPrivateFactory.METHOD;
         if (setPrivateFactoryMethod != null) {
             ReflectionUtils.invokeMethod(this,
                     setPrivateFactoryMethod,
@@ -123,6 +152,13 @@ class CalligraphyLayoutInflater extends LayoutInflater implements CalligraphyAct
         mSetPrivateFactory = true;
     }
 
+    /**
+     * Looks up LayoutInflater.setPrivateFactory once, the first time any inflater needs it.
+     */
+    private static final class SetPrivateFactory {
+        static final Method METHOD = ReflectionUtils.getMethod(LayoutInflater.class, "setPrivateFactory");
+    }
+
     // ===
     // LayoutInflater ViewCreators
     // Works in order of inflation
@@ -158,12 +194,22 @@ class CalligraphyLayoutInflater extends LayoutInflater implements CalligraphyAct
     protected View onCreateView(String name, AttributeSet attrs) throws ClassNotFoundException {
         // This mimics the {@code PhoneLayoutInflater} in the way it tries to inflate the base
         // classes, if this fails its pretty certain the app will fail at this point.
+        // Each name is only tried against the prefixes once, after that we go straight to the
+        // prefix it resolved with (or to the base class) without throwing.
         View view = null;
-        for (String prefix : sClassPrefixList) {
-            try {
-                view = createView(name, prefix, attrs);
-            } catch (ClassNotFoundException ignored) {
+        final String classPrefix = sClassPrefixes.get(name);
+        if (classPrefix == null) {
+            for (String prefix : sClassPrefixList) {
+                try {
+                    view = createView(name, prefix, attrs);
+                    sClassPrefixes.put(name, prefix);
+                    break;
+                } catch (ClassNotFoundException ignored) {
+                }
             }
+            if (view == null) sClassPrefixes.put(name, NO_CLASS_PREFIX);
+        } else if (classPrefix != NO_CLASS_PREFIX) {
+            view = createView(name, classPrefix, attrs);
         }
         // In this case we want to let the base class take a crack
         // at it.
@@ -191,31 +237,114 @@ class CalligraphyLayoutInflater extends LayoutInflater implements CalligraphyAct
         // createViewFromTag chain (which would solve all this unnecessary rubbish).
         // We at the very least try to optimise this as much as possible.
         // We only call for customViews (As they are the ones that never go through onCreateView(...)).
-        // We also maintain the Field reference and make it accessible which will make a pretty
-        // significant difference to performance on Android 4.0+.
+        // We cache the constructors and call them directly, so the private mConstructorArgs
+        // field is only touched when a Filter forces us through createView().
 
         // If CustomViewCreation is off skip this.
         if (!CalligraphyConfig.get().isCustomViewCreation()) return view;
         if (view == null && name.indexOf('.') > -1) {
-            if (mConstructorArgs == null)
-                mConstructorArgs = ReflectionUtils.getField(LayoutInflater.class, "mConstructorArgs");
+            // A Filter is checked inside createView(), so only the legacy path honours it.
+            if (getFilter() != null) return createCustomViewLegacy(name, viewContext, attrs);
+            final Constructor<? extends View> constructor = getViewConstructor(name, getContext().getClassLoader());
+            if (constructor != null) view = newView(constructor, name, viewContext, attrs);
+        }
+        return view;
+    }
+
+    /**
+     * @return the (Context, AttributeSet) constructor of the named View class, or null if the
+     * name isn't a View we can construct, in which case the LayoutInflater reports it.
+     */
+    static Constructor<? extends View> getViewConstructor(String name, ClassLoader classLoader) {
+        final ViewConstructor first = sViewConstructors.get(name);
+        // Another ClassLoader may resolve the name to another class, as LayoutInflater checks too.
+        for (ViewConstructor viewConstructor = first; viewConstructor != null; viewConstructor = viewConstructor.next) {
+            if (viewConstructor.classLoader == classLoader) return viewConstructor.constructor;
+        }
+        Constructor<? extends View> constructor = null;
+        try {
+            constructor = Class.forName(name, false, classLoader).asSubclass(View.class)
+                    .getConstructor(Context.class, AttributeSet.class);
+            constructor.setAccessible(true);
+        } catch (ClassNotFoundException | NoSuchMethodException | ClassCastException ignored) {
+        }
+        // Losing a race only means the other ClassLoader resolves again next time.
+        sViewConstructors.put(name, new ViewConstructor(classLoader, constructor, first));
+        return constructor;
+    }
+
+    /**
+     * Does what {@link #createView(String, String, AttributeSet)} does once it has the constructor.
+     */
+    private View newView(Constructor<? extends View> constructor, String name, Context viewContext, AttributeSet attrs) {
+        final View view;
+        try {
+            view = constructor.newInstance(viewContext, attrs);
+        } catch (InvocationTargetException e) {
+            throw newInflateException(name, attrs, e.getCause());
+        } catch (InstantiationException | IllegalAccessException e) {
+            throw newInflateException(name, attrs, e);
+        }
+        if (view instanceof ViewStub) {
+            // Use the same context when inflating ViewStub later.
+            ((ViewStub) view).setLayoutInflater(cloneInContext(viewContext));
+        }
+        return view;
+    }
 
-            final Object[] mConstructorArgsArr = (Object[]) ReflectionUtils.getValue(mConstructorArgs, this);
+    static InflateException newInflateException(String name, AttributeSet attrs, Throwable cause) {
+        return new InflateException(attrs.getPositionDescription() + ": Error inflating class " + name, cause);
+    }
+
+    /**
+     * Goes through {@link #createView(String, String, AttributeSet)}, which only takes the context
+     * from the private mConstructorArgs field.
+     */
+    private View createCustomViewLegacy(String name, Context viewContext, AttributeSet attrs) {
+        final CalligraphyMetricsListener listener = CalligraphyConfig.get().getMetricsListener();
+        if (listener != null) listener.onReflectiveFallback(name);
+        Field constructorArgs = sConstructorArgs;
+        if (constructorArgs == null) {
+            constructorArgs = ReflectionUtils.getField(LayoutInflater.class, "mConstructorArgs");
+            sConstructorArgs = constructorArgs;
+        }
+
+        final Object[] mConstructorArgsArr = (Object[]) ReflectionUtils.getValue(constructorArgs, this);
+        // LayoutInflater.inflate() holds this lock while inflating, so we only ever wait
+        // when another thread uses this inflater outside of inflate().
+        synchronized (mConstructorArgsArr) {
             final Object lastContext = mConstructorArgsArr[0];
             // The LayoutInflater actually finds out the correct context to use. We just need to set
             // it on the mConstructor for the internal method.
             // Set the constructor ars up for the createView, not sure why we can't pass these in.
             mConstructorArgsArr[0] = viewContext;
-            ReflectionUtils.setValue(mConstructorArgs, this, mConstructorArgsArr);
             try {
-                view = createView(name, null, attrs);
+                return createView(name, null, attrs);
             } catch (ClassNotFoundException ignored) {
+                return null;
             } finally {
                 mConstructorArgsArr[0] = lastContext;
-                ReflectionUtils.setValue(mConstructorArgs, this, mConstructorArgsArr);
             }
         }
-        return view;
+    }
+
+    /**
+     * A cached View constructor and the ClassLoader it was resolved with, linked to the ones
+     * resolved for the same name with other ClassLoaders.
+     */
+    private static final class ViewConstructor {
+        final ClassLoader classLoader;
+        /**
+         * Null if the name didn't resolve to a constructable View.
+         */
+        final Constructor<? extends View> constructor;
+        final ViewConstructor next;
+
+        ViewConstructor(ClassLoader classLoader, Constructor<? extends View> constructor, ViewConstructor next) {
+            this.classLoader = classLoader;
+            this.constructor = constructor;
+            this.next = next;
+        }
     }
 
     // ===
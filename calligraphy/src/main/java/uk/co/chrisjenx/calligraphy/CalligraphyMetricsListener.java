@@ -0,0 +1,85 @@
+package uk.co.chrisjenx.calligraphy;
+
+import android.view.View;
+import android.widget.TextView;
+
+/**
+ * Reports what Calligraphy does during inflation and font loading, for your own counters and
+ * timings. Register one with {@link CalligraphyConfig.Builder#setMetricsListener(CalligraphyMetricsListener)},
+ * without one nothing is measured.
+ *
+ * Calls come from whichever thread inflates or loads the font, including preload threads, and
+ * sit on the inflation path, so keep them cheap and thread-safe.
+ */
+public interface CalligraphyMetricsListener {
+
+    /**
+     * Font set on the view itself, e.g. {@code fontPath="..."}.
+     */
+    int SOURCE_XML = 0;
+    /**
+     * Font from the view's {@code style}.
+     */
+    int SOURCE_STYLE = 1;
+    /**
+     * Font from the TextAppearance set on the view or its style.
+     */
+    int SOURCE_TEXT_APPEARANCE = 2;
+    /**
+     * Font from the theme's TextAppearance or ActionBar styles.
+     */
+    int SOURCE_THEME = 3;
+    /**
+     * Font from the theme style attribute for the view's class, e.g. {@code textViewStyle} or one
+     * added with {@link CalligraphyConfig.Builder#addCustomStyle(Class, int)}.
+     */
+    int SOURCE_CLASS_STYLE = 4;
+    /**
+     * Nothing else set a font, so the default font from {@link CalligraphyConfig} was used.
+     */
+    int SOURCE_DEFAULT = 5;
+
+    /**
+     * A view went through Calligraphy, whether or not it can take a font. A view can be visited
+     * more than once when several factories see it.
+     */
+    void onViewVisited(View view);
+
+    /**
+     * A font was applied to the view.
+     *
+     * @param source one of the {@code SOURCE_} constants, where the font path was found.
+     */
+    void onViewStyled(View view, int source);
+
+    /**
+     * A font was asked for by path.
+     *
+     * @param hit true if it was already loaded, otherwise it's being loaded now (or by another
+     *            thread), see {@link #onTypefaceLoaded(String, long, boolean)}.
+     */
+    void onTypefaceCacheLookup(String fontPath, boolean hit);
+
+    /**
+     * A font file was decoded.
+     *
+     * @param durationNanos how long creating the Typeface took.
+     * @param loaded        false if it failed to load.
+     */
+    void onTypefaceLoaded(String fontPath, long durationNanos, boolean loaded);
+
+    /**
+     * A TextWatcher was added to keep the font on a TextView the system restyles, such as the
+     * ActionBar title. Only happens once per TextView.
+     */
+    void onDeferredWatcherAttached(TextView view);
+
+    /**
+     * Calligraphy fell back to reflection: a custom view was created through
+     * {@code LayoutInflater.createView(...)}, or its font was set through its own
+     * {@code setTypeface(Typeface)} method.
+     *
+     * @param className the view's class.
+     */
+    void onReflectiveFallback(String className);
+}
@@ -6,14 +6,33 @@ import android.text.TextPaint;
 import android.text.style.MetricAffectingSpan;
 
 public class CalligraphyTypefaceSpan extends MetricAffectingSpan {
+    /**
+     * The style of the text under the span isn't known, so work out what to fake on every pass.
+     */
+    public static final int STYLE_UNKNOWN = -1;
+
     private final Typeface typeface;
+    /**
+     * The typeface's own style, bold/italic family members included.
+     */
+    private final int typefaceStyle;
 
     public CalligraphyTypefaceSpan(final Typeface typeface) {
         if (typeface == null) {
             throw new IllegalArgumentException("typeface is null");
         }
-        
+
         this.typeface = typeface;
+        this.typefaceStyle = TypefaceUtils.getStyle(typeface);
+    }
+
+    /**
+     * @param typeface  not null typeface.
+     * @param baseStyle the style of the paint this span will be drawn over, or {@link #STYLE_UNKNOWN}.
+     * @see TypefaceUtils#getSpan(Typeface, int)
+     */
+    static CalligraphyTypefaceSpan create(final Typeface typeface, final int baseStyle) {
+        return baseStyle == STYLE_UNKNOWN ? new CalligraphyTypefaceSpan(typeface) : new KnownStyle(typeface, baseStyle);
     }
 
     @Override
@@ -29,7 +48,7 @@ public class CalligraphyTypefaceSpan extends MetricAffectingSpan {
     private void apply(final Paint paint) {
         final Typeface oldTypeface = paint.getTypeface();
         final int oldStyle = oldTypeface != null ? oldTypeface.getStyle() : 0;
-        final int fakeStyle = oldStyle & ~typeface.getStyle();
+        final int fakeStyle = oldStyle & ~typefaceStyle;
 
         if ((fakeStyle & Typeface.BOLD) != 0) {
             paint.setFakeBoldText(true);
@@ -41,4 +60,39 @@ public class CalligraphyTypefaceSpan extends MetricAffectingSpan {
 
         paint.setTypeface(typeface);
     }
+
+    /**
+     * For text whose style is known up front, what to fake is worked out once instead of from the
+     * paint on every measure and draw.
+     */
+    static final class KnownStyle extends CalligraphyTypefaceSpan {
+
+        private final Typeface typeface;
+        private final boolean fakeBold;
+        private final float textSkewX;
+
+        KnownStyle(final Typeface typeface, final int baseStyle) {
+            super(typeface);
+            this.typeface = typeface;
+            final int fakeStyle = baseStyle & ~TypefaceUtils.getStyle(typeface);
+            this.fakeBold = (fakeStyle & Typeface.BOLD) != 0;
+            this.textSkewX = (fakeStyle & Typeface.ITALIC) != 0 ? -0.25f : 0;
+        }
+
+        @Override
+        public void updateDrawState(final TextPaint drawState) {
+            apply(drawState);
+        }
+
+        @Override
+        public void updateMeasureState(final TextPaint paint) {
+            apply(paint);
+        }
+
+        private void apply(final Paint paint) {
+            paint.setFakeBoldText(fakeBold);
+            paint.setTextSkewX(textSkewX);
+            paint.setTypeface(typeface);
+        }
+    }
 }
@@ -16,6 +16,8 @@ import android.util.AttributeSet;
 import android.util.TypedValue;
 import android.widget.TextView;
 
+import java.util.Arrays;
+
 /**
  * Created by chris on 20/12/2013
  * Project: Calligraphy
@@ -24,6 +26,24 @@ public final class CalligraphyUtils {
 
     public static final int[] ANDROID_ATTR_TEXT_APPEARANCE = new int[]{android.R.attr.textAppearance};
 
+    /**
+     * What {@link #applyFontToTextView(Context, TextView, CalligraphyConfig, String, boolean)} applied.
+     */
+    static final int FONT_NOT_APPLIED = 0;
+    static final int FONT_APPLIED = 1;
+    static final int DEFAULT_FONT_APPLIED = 2;
+
+    /**
+     * Reused by the theme lookups so inflation doesn't allocate them per view. Nothing holding
+     * one calls out to code which could use it again.
+     */
+    private static final ThreadLocal<Scratch> sScratch = new ThreadLocal<Scratch>() {
+        @Override
+        protected Scratch initialValue() {
+            return new Scratch();
+        }
+    };
+
     /**
      * Applies a custom typeface span to the text.
      *
@@ -57,8 +77,8 @@ public final class CalligraphyUtils {
     }
 
     /**
-     * Applies a Typeface to a TextView, if deferred,its recommend you don't call this multiple
-     * times, as this adds a TextWatcher.
+     * Applies a Typeface to a TextView, if deferred a TextWatcher is added to the TextView, once,
+     * calling this again only updates the Typeface it applies.
      *
      * Deferring should really only be used on tricky views which get Typeface set by the system at
      * weird times.
@@ -76,21 +96,18 @@ public final class CalligraphyUtils {
         textView.setPaintFlags(textView.getPaintFlags() | Paint.SUBPIXEL_TEXT_FLAG | Paint.ANTI_ALIAS_FLAG);
         textView.setTypeface(typeface);
         if (deferred) {
-            textView.setText(applyTypefaceSpan(textView.getText(), typeface), TextView.BufferType.SPANNABLE);
-            textView.addTextChangedListener(new TextWatcher() {
-                @Override
-                public void beforeTextChanged(CharSequence s, int start, int count, int after) {
-                }
-
-                @Override
-                public void onTextChanged(CharSequence s, int start, int before, int count) {
-                }
-
-                @Override
-                public void afterTextChanged(Editable s) {
-                    applyTypefaceSpan(s, typeface);
-                }
-            });
+            // The system sets its own, maybe bold or italic, typeface on these later, so what to
+            // fake is worked out from the paint at draw time.
+            final CalligraphyTypefaceSpan span = TypefaceUtils.getSpan(typeface);
+            TypefaceSpanWatcher watcher = (TypefaceSpanWatcher) textView.getTag(R.id.calligraphy_watcher_tag_id);
+            if (watcher == null) {
+                watcher = new TypefaceSpanWatcher(span);
+                textView.addTextChangedListener(watcher);
+                textView.setTag(R.id.calligraphy_watcher_tag_id, watcher);
+                final CalligraphyMetricsListener listener = CalligraphyConfig.get().getMetricsListener();
+                if (listener != null) listener.onDeferredWatcherAttached(textView);
+            }
+            watcher.applyTo(textView, span);
         }
         return true;
     }
@@ -111,18 +128,44 @@ public final class CalligraphyUtils {
     static boolean applyFontToTextView(final Context context, final TextView textView, final String filePath, boolean deferred) {
         if (textView == null || context == null) return false;
         final AssetManager assetManager = context.getAssets();
+        final CalligraphyFontFamily fontFamily = CalligraphyConfig.get().getFontFamily(filePath);
+        if (fontFamily != null && applyFontFamilyToTextView(assetManager, textView, fontFamily, deferred)) {
+            return true;
+        }
         final Typeface typeface = TypefaceUtils.load(assetManager, filePath);
         return applyFontToTextView(textView, typeface, deferred);
     }
 
+    /**
+     * Applies the family member matching the TextView's current style (e.g. from
+     * {@code textStyle}), only faking the bold or italic the family doesn't have.
+     *
+     * @return false if the member couldn't be loaded.
+     */
+    private static boolean applyFontFamilyToTextView(final AssetManager assetManager, final TextView textView, final CalligraphyFontFamily fontFamily, boolean deferred) {
+        final Typeface currentTypeface = textView.getTypeface();
+        final int style = currentTypeface != null ? TypefaceUtils.getStyle(currentTypeface) : Typeface.NORMAL;
+        final Typeface typeface = TypefaceUtils.load(assetManager, fontFamily.getFontPath(style));
+        if (typeface == null) return false;
+
+        final int fakeStyle = style & ~TypefaceUtils.getStyle(typeface);
+        final Paint paint = textView.getPaint();
+        paint.setFakeBoldText((fakeStyle & Typeface.BOLD) != 0);
+        paint.setTextSkewX((fakeStyle & Typeface.ITALIC) != 0 ? -0.25f : 0);
+        return applyFontToTextView(textView, typeface, deferred);
+    }
+
     static void applyFontToTextView(final Context context, final TextView textView, final CalligraphyConfig config) {
         applyFontToTextView(context, textView, config, false);
     }
 
-    static void applyFontToTextView(final Context context, final TextView textView, final CalligraphyConfig config, boolean deferred) {
-        if (context == null || textView == null || config == null) return;
-        if (!config.isFontSet()) return;
-        applyFontToTextView(context, textView, config.getFontPath(), deferred);
+    /**
+     * @return true if the default font was applied.
+     */
+    static boolean applyFontToTextView(final Context context, final TextView textView, final CalligraphyConfig config, boolean deferred) {
+        if (context == null || textView == null || config == null) return false;
+        if (!config.isFontSet()) return false;
+        return applyFontToTextView(context, textView, config.getFontPath(), deferred);
     }
 
     /**
@@ -138,12 +181,16 @@ public final class CalligraphyUtils {
         applyFontToTextView(context, textView, config, textViewFont, false);
     }
 
-    static void applyFontToTextView(final Context context, final TextView textView, final CalligraphyConfig config, final String textViewFont, boolean deferred) {
-        if (context == null || textView == null || config == null) return;
+    /**
+     * @return {@link #FONT_APPLIED}, {@link #DEFAULT_FONT_APPLIED} if it fell back to the default
+     * font, or {@link #FONT_NOT_APPLIED} if neither could be applied.
+     */
+    static int applyFontToTextView(final Context context, final TextView textView, final CalligraphyConfig config, final String textViewFont, boolean deferred) {
+        if (context == null || textView == null || config == null) return FONT_NOT_APPLIED;
         if (!TextUtils.isEmpty(textViewFont) && applyFontToTextView(context, textView, textViewFont, deferred)) {
-            return;
+            return FONT_APPLIED;
         }
-        applyFontToTextView(context, textView, config, deferred);
+        return applyFontToTextView(context, textView, config, deferred) ? DEFAULT_FONT_APPLIED : FONT_NOT_APPLIED;
     }
 
     /**
@@ -158,13 +205,32 @@ public final class CalligraphyUtils {
         if (attributeId == null || attrs == null)
             return null;
 
-        final String attributeName;
+        return pullFontPathFromView(context, attrs, getAttributeName(context, attributeId[0]));
+    }
+
+    /**
+     * @return the attribute's name, e.g. "fontPath", null if it's not a valid attribute id.
+     */
+    static String getAttributeName(Context context, int attributeId) {
         try {
-            attributeName = context.getResources().getResourceEntryName(attributeId[0]);
+            return context.getResources().getResourceEntryName(attributeId);
         } catch (Resources.NotFoundException e) {
             // invalid attribute ID
             return null;
         }
+    }
+
+    /**
+     * Tries to pull the Custom Attribute directly from the TextView.
+     *
+     * @param context       Activity Context
+     * @param attrs         View Attributes
+     * @param attributeName from {@link #getAttributeName(Context, int)}, if null returns null.
+     * @return null if attribute is not defined or added to View
+     */
+    static String pullFontPathFromView(Context context, AttributeSet attrs, String attributeName) {
+        if (attributeName == null || attrs == null)
+            return null;
 
         final int stringResourceId = attrs.getAttributeResourceValue(null, attributeName, -1);
         return stringResourceId > 0
@@ -173,72 +239,135 @@ public final class CalligraphyUtils {
     }
 
     /**
-     * Tries to pull the Font Path from the View Style as this is the next decendent after being
-     * defined in the View's xml.
+     * Tries to pull the Font Path from the View Style, then from the View's TextAppearance, as
+     * these are the next decendents after being defined in the View's xml. Both come out of one
+     * TypedArray.
      *
-     * @param context     Activity Activity Context
+     * @param context     Activity Context
      * @param attrs       View Attributes
+     * @param styleAttrs  from {@link #getStyleAttributes(int[])}.
      * @param attributeId if -1 returns null.
-     * @return null if attribute is not defined or found in the Style
+     * @return the font and whether it came from the Style or the TextAppearance,
+     * {@link FontResolution#NONE} if neither defines it.
      */
-    static String pullFontPathFromStyle(Context context, AttributeSet attrs, int[] attributeId) {
+    static FontResolution pullFontPathFromStyleOrTextAppearance(Context context, AttributeSet attrs, int[] styleAttrs, int[] attributeId) {
         if (attributeId == null || attrs == null)
-            return null;
-        final TypedArray typedArray = context.obtainStyledAttributes(attrs, attributeId);
+            return FontResolution.NONE;
+
+        final int fontIndex = styleAttrs[0] == attributeId[0] ? 0 : 1;
+        int textAppearanceId = -1;
+        final TypedArray typedArray = context.obtainStyledAttributes(attrs, styleAttrs);
         if (typedArray != null) {
             try {
                 // First defined attribute
-                String fontFromAttribute = typedArray.getString(0);
+                String fontFromAttribute = typedArray.getString(fontIndex);
                 if (!TextUtils.isEmpty(fontFromAttribute)) {
-                    return fontFromAttribute;
+                    return FontResolution.of(fontFromAttribute, CalligraphyMetricsListener.SOURCE_STYLE);
                 }
+                textAppearanceId = typedArray.getResourceId(1 - fontIndex, -1);
             } catch (Exception ignore) {
                 // Failed for some reason.
+                return FontResolution.NONE;
             } finally {
                 typedArray.recycle();
             }
         }
-        return null;
+        // Without a TextAppearance there's nothing the style lookup didn't already see.
+        if (textAppearanceId == -1) return FontResolution.NONE;
+
+        final TypedArray textAppearanceAttrs = context.obtainStyledAttributes(textAppearanceId, attributeId);
+        if (textAppearanceAttrs != null) {
+            try {
+                return FontResolution.of(textAppearanceAttrs.getString(0), CalligraphyMetricsListener.SOURCE_TEXT_APPEARANCE);
+            } catch (Exception ignore) {
+                // Failed for some reason.
+                return FontResolution.NONE;
+            } finally {
+                textAppearanceAttrs.recycle();
+            }
+        }
+        return FontResolution.NONE;
     }
 
     /**
-     * Tries to pull the Font Path from the Text Appearance.
+     * Same as {@link #pullFontPathFromStyleOrTextAppearance(Context, AttributeSet, int[], int[])}
+     * for a view whose AttributeSet is no longer available, from the style and textAppearance
+     * that were set on it. Any other attributes on the view can't change the answer.
      *
-     * @param context     Activity Context
-     * @param attrs       View Attributes
-     * @param attributeId if -1 returns null.
-     * @return returns null if attribute is not defined or if no TextAppearance is found.
+     * @param styleRes          from {@link #getStyleResource(Context, AttributeSet)}, never
+     *                          {@link FontResolutionCache#UNCACHEABLE_STYLE}.
+     * @param textAppearanceRes the view's own {@code android:textAppearance}, 0 if none.
      */
-    static String pullFontPathFromTextAppearance(final Context context, AttributeSet attrs, int[] attributeId) {
-        if (attributeId == null || attrs == null) {
-            return null;
-        }
+    static FontResolution pullFontPathFromStyleOrTextAppearance(Context context, int styleRes, int textAppearanceRes, int[] styleAttrs, int[] attributeId) {
+        if (attributeId == null || styleRes == FontResolutionCache.NO_ATTRS)
+            return FontResolution.NONE;
 
-        int textAppearanceId = -1;
-        final TypedArray typedArrayAttr = context.obtainStyledAttributes(attrs, ANDROID_ATTR_TEXT_APPEARANCE);
-        if (typedArrayAttr != null) {
+        final int fontIndex = styleAttrs[0] == attributeId[0] ? 0 : 1;
+        int textAppearanceId = textAppearanceRes != 0 ? textAppearanceRes : -1;
+        final TypedArray typedArray = context.getTheme().obtainStyledAttributes(null, styleAttrs, 0, styleRes);
+        if (typedArray != null) {
             try {
-                textAppearanceId = typedArrayAttr.getResourceId(0, -1);
-            } catch (Exception ignored) {
-                // Failed for some reason
-                return null;
+                String fontFromAttribute = typedArray.getString(fontIndex);
+                if (!TextUtils.isEmpty(fontFromAttribute)) {
+                    return FontResolution.of(fontFromAttribute, CalligraphyMetricsListener.SOURCE_STYLE);
+                }
+                if (textAppearanceId == -1) {
+                    textAppearanceId = typedArray.getResourceId(1 - fontIndex, -1);
+                }
+            } catch (Exception ignore) {
+                // Failed for some reason.
+                return FontResolution.NONE;
             } finally {
-                typedArrayAttr.recycle();
+                typedArray.recycle();
             }
         }
+        if (textAppearanceId == -1) return FontResolution.NONE;
 
         final TypedArray textAppearanceAttrs = context.obtainStyledAttributes(textAppearanceId, attributeId);
         if (textAppearanceAttrs != null) {
             try {
-                return textAppearanceAttrs.getString(0);
+                return FontResolution.of(textAppearanceAttrs.getString(0), CalligraphyMetricsListener.SOURCE_TEXT_APPEARANCE);
             } catch (Exception ignore) {
                 // Failed for some reason.
-                return null;
+                return FontResolution.NONE;
             } finally {
                 textAppearanceAttrs.recycle();
             }
         }
-        return null;
+        return FontResolution.NONE;
+    }
+
+    /**
+     * @return the font attribute and {@code android:textAppearance}, sorted as
+     * {@link Context#obtainStyledAttributes(AttributeSet, int[])} expects.
+     */
+    static int[] getStyleAttributes(int[] attributeId) {
+        final int[] styleAttrs = new int[]{attributeId[0], android.R.attr.textAppearance};
+        Arrays.sort(styleAttrs);
+        return styleAttrs;
+    }
+
+    /**
+     * The view's {@code style}, resolved through the theme if it's a theme attribute such as
+     * {@code style="?attr/myTextStyle"}, which {@link AttributeSet#getStyleAttribute()} returns
+     * the attribute id for.
+     *
+     * @return the style resource, 0 if none, {@link FontResolutionCache#NO_ATTRS} without attrs,
+     * {@link FontResolutionCache#UNCACHEABLE_STYLE} if the attribute doesn't resolve to a style.
+     */
+    static int getStyleResource(Context context, AttributeSet attrs) {
+        if (attrs == null) return FontResolutionCache.NO_ATTRS;
+        final int styleRes = attrs.getStyleAttribute();
+        if (styleRes == 0) return 0;
+        final String style = attrs.getAttributeValue(null, "style");
+        if (style == null || !style.startsWith("?")) return styleRes;
+
+        final TypedValue value = sScratch.get().typedValue;
+        if (context.getTheme().resolveAttribute(styleRes, value, true) && value.resourceId != 0
+                && "style".equals(context.getResources().getResourceTypeName(value.resourceId))) {
+            return value.resourceId;
+        }
+        return FontResolutionCache.UNCACHEABLE_STYLE;
     }
 
     /**
@@ -254,7 +383,7 @@ public final class CalligraphyUtils {
             return null;
 
         final Resources.Theme theme = context.getTheme();
-        final TypedValue value = new TypedValue();
+        final TypedValue value = sScratch.get().typedValue;
 
         theme.resolveAttribute(styleAttrId, value, true);
         final TypedArray typedArray = theme.obtainStyledAttributes(value.resourceId, attributeId);
@@ -283,11 +412,13 @@ public final class CalligraphyUtils {
             return null;
 
         final Resources.Theme theme = context.getTheme();
-        final TypedValue value = new TypedValue();
+        final Scratch scratch = sScratch.get();
+        final TypedValue value = scratch.typedValue;
 
         theme.resolveAttribute(styleAttrId, value, true);
         int subStyleResId = -1;
-        final TypedArray parentTypedArray = theme.obtainStyledAttributes(value.resourceId, new int[]{subStyleAttrId});
+        scratch.attr[0] = subStyleAttrId;
+        final TypedArray parentTypedArray = theme.obtainStyledAttributes(value.resourceId, scratch.attr);
         try {
             subStyleResId = parentTypedArray.getResourceId(0, -1);
         } catch (Exception ignore) {
@@ -312,8 +443,62 @@ public final class CalligraphyUtils {
         return null;
     }
 
-    private static Boolean sToolbarCheck = null;
-    private static Boolean sAppCompatViewCheck = null;
+    /**
+     * Keeps a deferred TextView's text covered by the typeface span. The span is inclusive at both
+     * ends so edits grow it on their own, the watcher only has to set it again when the text is
+     * replaced outright, and never copies the text to do so.
+     */
+    static final class TypefaceSpanWatcher implements TextWatcher {
+
+        private CalligraphyTypefaceSpan mSpan;
+
+        TypefaceSpanWatcher(CalligraphyTypefaceSpan span) {
+            mSpan = span;
+        }
+
+        void applyTo(TextView textView, CalligraphyTypefaceSpan span) {
+            CharSequence text = textView.getText();
+            if (span != mSpan) {
+                if (text instanceof Spannable) ((Spannable) text).removeSpan(mSpan);
+                mSpan = span;
+            }
+            if (!(text instanceof Spannable)) {
+                // With a watcher attached the TextView makes its own Editable copy and tells us.
+                textView.setText(text, TextView.BufferType.SPANNABLE);
+                text = textView.getText();
+            }
+            if (text instanceof Spannable) {
+                coverText((Spannable) text);
+            }
+        }
+
+        @Override
+        public void beforeTextChanged(CharSequence s, int start, int count, int after) {
+        }
+
+        @Override
+        public void onTextChanged(CharSequence s, int start, int before, int count) {
+        }
+
+        @Override
+        public void afterTextChanged(Editable s) {
+            coverText(s);
+        }
+
+        private void coverText(Spannable text) {
+            final int length = text.length();
+            if (text.getSpanStart(mSpan) == 0 && text.getSpanEnd(mSpan) == length) return;
+            text.setSpan(mSpan, 0, length, Spanned.SPAN_INCLUSIVE_INCLUSIVE);
+        }
+    }
+
+    private static final class Scratch {
+        final TypedValue typedValue = new TypedValue();
+        final int[] attr = new int[1];
+    }
+
+    private static volatile Boolean sToolbarCheck = null;
+    private static volatile Boolean sAppCompatViewCheck = null;
 
     /**
      * See if the user has added appcompat-v7, this is done at runtime, so we only check once.
@@ -0,0 +1,90 @@
+package uk.co.chrisjenx.calligraphy;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Handle on a batch of fonts being decoded in the background.
+ *
+ * @see TypefaceUtils#preloadAsync(android.content.Context)
+ * @see TypefaceUtils#preloadAsync(android.content.res.AssetManager, String...)
+ */
+public final class FontPreload {
+
+    public interface Listener {
+        /**
+         * Called once every font in the batch has been loaded (or failed to load), on the thread
+         * which finished last. If already done when added, called straight away on the calling thread.
+         */
+        void onFontsPreloaded(FontPreload preload);
+    }
+
+    /**
+     * Starts at one so we can't complete while fonts are still being queued up, see
+     * {@link TypefaceUtils#preloadAsync(android.content.Context)}.
+     */
+    private final AtomicInteger mPending = new AtomicInteger(1);
+    private final CountDownLatch mDone = new CountDownLatch(1);
+    private final List<Listener> mListeners = new ArrayList<>();
+
+    FontPreload() {
+    }
+
+    /**
+     * @return true if every font in this batch has been loaded.
+     */
+    public boolean isDone() {
+        return mDone.getCount() == 0;
+    }
+
+    /**
+     * Block until every font in this batch has been loaded.
+     * Don't call this from the main thread unless you really have to.
+     */
+    public void await() throws InterruptedException {
+        mDone.await();
+    }
+
+    /**
+     * Block until every font in this batch has been loaded or the timeout elapses.
+     *
+     * @return true if done, false if we timed out.
+     */
+    public boolean await(long timeout, TimeUnit unit) throws InterruptedException {
+        return mDone.await(timeout, unit);
+    }
+
+    /**
+     * @param listener notified when the batch is done, see {@link Listener#onFontsPreloaded(FontPreload)}.
+     */
+    public void addListener(Listener listener) {
+        if (listener == null) return;
+        synchronized (mListeners) {
+            if (!isDone()) {
+                mListeners.add(listener);
+                return;
+            }
+        }
+        listener.onFontsPreloaded(this);
+    }
+
+    void onStarted() {
+        mPending.incrementAndGet();
+    }
+
+    void onFinished() {
+        if (mPending.decrementAndGet() != 0) return;
+        final List<Listener> listeners;
+        synchronized (mListeners) {
+            mDone.countDown();
+            listeners = new ArrayList<>(mListeners);
+            mListeners.clear();
+        }
+        for (Listener listener : listeners) {
+            listener.onFontsPreloaded(this);
+        }
+    }
+}
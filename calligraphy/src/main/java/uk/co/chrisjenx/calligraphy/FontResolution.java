@@ -0,0 +1,33 @@
+package uk.co.chrisjenx.calligraphy;
+
+import android.text.TextUtils;
+
+/**
+ * A resolved font path and where it was found, one of the
+ * {@link CalligraphyMetricsListener} {@code SOURCE_} constants.
+ */
+final class FontResolution {
+
+    /**
+     * Nothing found, the default font applies if there is one.
+     */
+    static final FontResolution NONE = new FontResolution(null, CalligraphyMetricsListener.SOURCE_DEFAULT);
+
+    /**
+     * @return {@link #NONE} if the path is null or empty.
+     */
+    static FontResolution of(String fontPath, int source) {
+        return TextUtils.isEmpty(fontPath) ? NONE : new FontResolution(fontPath, source);
+    }
+
+    /**
+     * Null for {@link #NONE}.
+     */
+    final String fontPath;
+    final int source;
+
+    private FontResolution(String fontPath, int source) {
+        this.fontPath = fontPath;
+        this.source = source;
+    }
+}
@@ -0,0 +1,186 @@
+package uk.co.chrisjenx.calligraphy;
+
+import android.content.Context;
+import android.content.res.Configuration;
+import android.content.res.Resources;
+import android.util.AttributeSet;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.WeakHashMap;
+
+/**
+ * Remembers which font path the styles and theme resolve to, so views sharing a style,
+ * textAppearance and theme only walk the TypedArrays once.
+ * One cache per {@link Resources.Theme} object, replaced when it's looked up under a different
+ * Configuration than it was built with, and dropped on
+ * {@link CalligraphyConfig#initDefault(CalligraphyConfig)}. Within one inflate each thread looks
+ * a theme's cache up once, see {@link #beginInflation()}.
+ * Entries aren't invalidated when a Theme is changed in place, with {@code applyStyle(...)} or an
+ * Activity calling {@code setTheme(...)} after inflating, so those keep the fonts they resolved
+ * before the change.
+ * Views with the font attribute set inline never get here.
+ */
+final class FontResolutionCache {
+
+    /**
+     * Used for the style key when there is no AttributeSet at all.
+     */
+    static final int NO_ATTRS = -1;
+    /**
+     * Used for the style attribute key when the theme isn't consulted.
+     */
+    static final int NO_THEME_STYLE = -1;
+    /**
+     * Returned by {@link #getTextAppearanceResource(AttributeSet)} when the view's textAppearance
+     * isn't a plain style reference (e.g. a theme attribute), such views can't be cached.
+     */
+    static final int UNCACHEABLE_TEXT_APPEARANCE = -1;
+    /**
+     * Returned by {@link CalligraphyUtils#getStyleResource(Context, AttributeSet)} when the view's
+     * style is a theme attribute which doesn't point at a style, such views can't be cached.
+     */
+    static final int UNCACHEABLE_STYLE = -2;
+    private static final Map<Resources.Theme, FontResolutionCache> sCaches = new WeakHashMap<>();
+    /**
+     * The cache last looked up on this thread during the current inflate.
+     */
+    private static final ThreadLocal<InflationScope> sScope = new ThreadLocal<InflationScope>() {
+        @Override
+        protected InflationScope initialValue() {
+            return new InflationScope();
+        }
+    };
+
+    /**
+     * Called as an inflate starts on this thread. Until the matching {@link #endInflation()} the
+     * Configuration can't change under it, so views sharing a theme reuse its cache without
+     * taking the lock or comparing Configurations again.
+     */
+    static void beginInflation() {
+        sScope.get().depth++;
+    }
+
+    static void endInflation() {
+        final InflationScope scope = sScope.get();
+        if (--scope.depth == 0) {
+            scope.theme = null;
+            scope.cache = null;
+        }
+    }
+
+    /**
+     * @return the cache for the context's theme, never null.
+     */
+    static FontResolutionCache get(Context context) {
+        final Resources.Theme theme = context.getTheme();
+        final InflationScope scope = sScope.get();
+        if (scope.depth > 0 && scope.theme == theme) return scope.cache;
+
+        final Configuration configuration = context.getResources().getConfiguration();
+        FontResolutionCache cache;
+        synchronized (sCaches) {
+            cache = sCaches.get(theme);
+            if (cache == null || !cache.mConfiguration.equals(configuration)) {
+                cache = new FontResolutionCache(configuration);
+                sCaches.put(theme, cache);
+            }
+        }
+        if (scope.depth > 0) {
+            scope.theme = theme;
+            scope.cache = cache;
+        }
+        return cache;
+    }
+
+    static void clear() {
+        synchronized (sCaches) {
+            sCaches.clear();
+        }
+    }
+
+    /**
+     * @return the resource id of the textAppearance set on the view itself, 0 if none,
+     * {@link #UNCACHEABLE_TEXT_APPEARANCE} if it's set to something other than a style.
+     */
+    static int getTextAppearanceResource(AttributeSet attrs) {
+        if (attrs == null) return 0;
+        for (int i = 0, count = attrs.getAttributeCount(); i < count; i++) {
+            if (attrs.getAttributeNameResource(i) == android.R.attr.textAppearance) {
+                final int textAppearanceRes = attrs.getAttributeResourceValue(i, 0);
+                return textAppearanceRes != 0 ? textAppearanceRes : UNCACHEABLE_TEXT_APPEARANCE;
+            }
+        }
+        return 0;
+    }
+
+    private final Configuration mConfiguration;
+    private final Map<Key, FontResolution> mFontPaths = new HashMap<>();
+    /**
+     * Reused for lookups, guarded by this.
+     */
+    private final Key mProbe = new Key();
+
+    private FontResolutionCache(Configuration configuration) {
+        mConfiguration = new Configuration(configuration);
+    }
+
+    /**
+     * @return the cached resolution, {@link FontResolution#NONE} if it resolves to no font, null
+     * if not cached yet.
+     */
+    synchronized FontResolution get(int attrId, int styleRes, int textAppearanceRes, int styleAttr, int subStyleAttr) {
+        mProbe.set(attrId, styleRes, textAppearanceRes, styleAttr, subStyleAttr);
+        return mFontPaths.get(mProbe);
+    }
+
+    synchronized void put(int attrId, int styleRes, int textAppearanceRes, int styleAttr, int subStyleAttr, FontResolution resolution) {
+        final Key key = new Key();
+        key.set(attrId, styleRes, textAppearanceRes, styleAttr, subStyleAttr);
+        mFontPaths.put(key, resolution);
+    }
+
+    private static final class InflationScope {
+        int depth;
+        Resources.Theme theme;
+        FontResolutionCache cache;
+    }
+
+    private static final class Key {
+        int attrId;
+        int styleRes;
+        int textAppearanceRes;
+        int styleAttr;
+        int subStyleAttr;
+
+        void set(int attrId, int styleRes, int textAppearanceRes, int styleAttr, int subStyleAttr) {
+            this.attrId = attrId;
+            this.styleRes = styleRes;
+            this.textAppearanceRes = textAppearanceRes;
+            this.styleAttr = styleAttr;
+            this.subStyleAttr = subStyleAttr;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) return true;
+            if (!(o instanceof Key)) return false;
+            final Key key = (Key) o;
+            return attrId == key.attrId
+                    && styleRes == key.styleRes
+                    && textAppearanceRes == key.textAppearanceRes
+                    && styleAttr == key.styleAttr
+                    && subStyleAttr == key.subStyleAttr;
+        }
+
+        @Override
+        public int hashCode() {
+            int result = attrId;
+            result = 31 * result + styleRes;
+            result = 31 * result + textAppearanceRes;
+            result = 31 * result + styleAttr;
+            result = 31 * result + subStyleAttr;
+            return result;
+        }
+    }
+}
@@ -0,0 +1,195 @@
+package uk.co.chrisjenx.calligraphy;
+
+import android.annotation.TargetApi;
+import android.content.res.AssetFileDescriptor;
+import android.content.res.AssetManager;
+import android.graphics.Typeface;
+import android.os.Build;
+import android.os.ParcelFileDescriptor;
+import android.util.Log;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+
+/**
+ * Where {@link TypefaceUtils} reads a font from.
+ * Created when a font is first requested, then kept alongside the loaded Typeface.
+ */
+abstract class FontSource {
+
+    /**
+     * @return the Typeface, may throw or return null if the font can't be read.
+     */
+    abstract Typeface createTypeface() throws Exception;
+
+    /**
+     * @return size of the font file in bytes.
+     */
+    abstract long getSize() throws IOException;
+
+    /**
+     * A font in the app's assets. If {@link CalligraphyConfig#getFontExtractionDir()} is set, the
+     * font is copied there once and loaded from that file from then on, which lets the platform
+     * map it instead of reading it out of the APK on every cold start.
+     */
+    static final class Asset extends FontSource {
+
+        private final AssetManager mAssetManager;
+        private final String mFilePath;
+
+        Asset(AssetManager assetManager, String filePath) {
+            mAssetManager = assetManager;
+            mFilePath = filePath;
+        }
+
+        @Override
+        Typeface createTypeface() throws Exception {
+            final File extractionDir = CalligraphyConfig.get().getFontExtractionDir();
+            if (extractionDir != null) {
+                try {
+                    return Typeface.createFromFile(extract(extractionDir));
+                } catch (Exception e) {
+                    Log.w("Calligraphy", "Can't extract " + mFilePath + " to " + extractionDir + ", loading from assets.", e);
+                }
+            }
+            return Typeface.createFromAsset(mAssetManager, mFilePath);
+        }
+
+        @Override
+        long getSize() throws IOException {
+            try {
+                // Uncompressed assets can tell us their length without reading them.
+                final AssetFileDescriptor fd = mAssetManager.openFd(mFilePath);
+                try {
+                    return fd.getLength();
+                } finally {
+                    fd.close();
+                }
+            } catch (IOException compressed) {
+                final InputStream in = mAssetManager.open(mFilePath);
+                try {
+                    return in.available();
+                } finally {
+                    in.close();
+                }
+            }
+        }
+
+        /**
+         * @return the extracted copy of this asset, reusing it if its size still matches.
+         */
+        private File extract(File extractionDir) throws IOException {
+            final File file = new File(extractionDir, mFilePath.replace("%", "%25").replace("/", "%2F"));
+            final long size = getSize();
+            if (file.isFile() && file.length() == size) return file;
+
+            if (!extractionDir.isDirectory() && !extractionDir.mkdirs()) {
+                throw new IOException("Can't create " + extractionDir);
+            }
+            // Write to a temp file first so no one ever loads a half written font.
+            final File temp = File.createTempFile(file.getName(), ".tmp", extractionDir);
+            try {
+                final InputStream in = mAssetManager.open(mFilePath);
+                try {
+                    final OutputStream out = new FileOutputStream(temp);
+                    try {
+                        final byte[] buffer = new byte[8192];
+                        int read;
+                        while ((read = in.read(buffer)) != -1) {
+                            out.write(buffer, 0, read);
+                        }
+                    } finally {
+                        out.close();
+                    }
+                } finally {
+                    in.close();
+                }
+                if (!temp.renameTo(file)) {
+                    throw new IOException("Can't move " + temp + " to " + file);
+                }
+            } finally {
+                //noinspection ResultOfMethodCallIgnored
+                temp.delete();
+            }
+            return file;
+        }
+
+        @Override
+        public String toString() {
+            return mFilePath;
+        }
+    }
+
+    /**
+     * A font file on disk, e.g. downloaded or in app private storage.
+     */
+    static final class FontFile extends FontSource {
+
+        private final File mFile;
+
+        FontFile(File file) {
+            mFile = file;
+        }
+
+        @Override
+        Typeface createTypeface() {
+            return Typeface.createFromFile(mFile);
+        }
+
+        @Override
+        long getSize() {
+            return mFile.length();
+        }
+
+        @Override
+        public String toString() {
+            return mFile.getPath();
+        }
+    }
+
+    /**
+     * A font behind an open file descriptor, e.g. from a ContentProvider. The descriptor must
+     * stay open until the font has loaded.
+     */
+    static final class Descriptor extends FontSource {
+
+        private final ParcelFileDescriptor mFileDescriptor;
+        /**
+         * Read up front, the descriptor may well be closed by the time we're asked.
+         */
+        private final long mSize;
+
+        Descriptor(ParcelFileDescriptor fileDescriptor) {
+            mFileDescriptor = fileDescriptor;
+            mSize = Math.max(0, fileDescriptor.getStatSize());
+        }
+
+        @Override
+        Typeface createTypeface() {
+            if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.O) {
+                return createTypefaceO();
+            }
+            // Pre O there is no descriptor based API, but the platform will happily open the
+            // descriptor's proc entry as a path.
+            return Typeface.createFromFile("/proc/self/fd/" + mFileDescriptor.getFd());
+        }
+
+        @TargetApi(Build.VERSION_CODES.O)
+        private Typeface createTypefaceO() {
+            return new Typeface.Builder(mFileDescriptor.getFileDescriptor()).build();
+        }
+
+        @Override
+        long getSize() {
+            return mSize;
+        }
+
+        @Override
+        public String toString() {
+            return "fd:" + mFileDescriptor.getFd();
+        }
+    }
+}
@@ -0,0 +1,103 @@
+package uk.co.chrisjenx.calligraphy;
+
+import android.content.Context;
+import android.widget.TextView;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * TextViews created during a batched {@link CalligraphyLayoutInflater#inflate} on this thread,
+ * waiting for their font until the outermost inflate has built its tree.
+ * See {@link CalligraphyConfig.Builder#enableBatchedInflation()}.
+ */
+final class InflationBatch {
+
+    private static final ThreadLocal<InflationBatch> sBatch = new ThreadLocal<InflationBatch>() {
+        @Override
+        protected InflationBatch initialValue() {
+            return new InflationBatch();
+        }
+    };
+
+    /**
+     * Start recording, or join the batch of an outer inflate on this thread.
+     */
+    static void begin() {
+        sBatch.get().mDepth++;
+    }
+
+    /**
+     * Finish the current inflate, applying fonts to everything recorded if it's the outermost.
+     */
+    static void end() {
+        final InflationBatch batch = sBatch.get();
+        if (--batch.mDepth == 0) {
+            batch.flush();
+        }
+    }
+
+    /**
+     * @return the batch recording on this thread, null if no batched inflate is running.
+     */
+    static InflationBatch current() {
+        final InflationBatch batch = sBatch.get();
+        return batch.mDepth > 0 ? batch : null;
+    }
+
+    /**
+     * Entries are reused between inflations, only the first {@link #mSize} are pending.
+     */
+    private final List<PendingTextView> mPending = new ArrayList<>();
+    private int mSize;
+    private int mDepth;
+
+    void add(CalligraphyFactory factory, Context context, TextView view, int styleRes, int textAppearanceRes,
+             int styleAttr, int subStyleAttr, boolean deferred) {
+        if (mSize == mPending.size()) {
+            mPending.add(new PendingTextView());
+        }
+        final PendingTextView pending = mPending.get(mSize++);
+        pending.factory = factory;
+        pending.context = context;
+        pending.view = view;
+        pending.styleRes = styleRes;
+        pending.textAppearanceRes = textAppearanceRes;
+        pending.styleAttr = styleAttr;
+        pending.subStyleAttr = subStyleAttr;
+        pending.deferred = deferred;
+    }
+
+    private void flush() {
+        try {
+            // Views with the same key resolve once, the rest come out of the FontResolutionCache.
+            for (int i = 0; i < mSize; i++) {
+                final PendingTextView pending = mPending.get(i);
+                pending.factory.applyFontToTextView(pending.context, pending.view, pending.styleRes,
+                        pending.textAppearanceRes, pending.styleAttr, pending.subStyleAttr, pending.deferred);
+            }
+        } finally {
+            for (int i = 0; i < mSize; i++) {
+                mPending.get(i).clear();
+            }
+            mSize = 0;
+        }
+    }
+
+    private static final class PendingTextView {
+        CalligraphyFactory factory;
+        Context context;
+        TextView view;
+        int styleRes;
+        int textAppearanceRes;
+        int styleAttr;
+        int subStyleAttr;
+        boolean deferred;
+
+        void clear() {
+            factory = null;
+            context = null;
+            view = null;
+        }
+    }
+}
@@ -32,13 +32,6 @@ class ReflectionUtils {
         return null;
     }
 
-    static void setValue(Field field, Object obj, Object value) {
-        try {
-            field.set(obj, value);
-        } catch (IllegalAccessException ignored) {
-        }
-    }
-
     static Method getMethod(Class clazz, String methodName) {
         final Method[] methods = clazz.getMethods();
         for (Method method : methods) {
@@ -50,6 +43,20 @@ class ReflectionUtils {
         return null;
     }
 
+    /**
+     * @return the public method with exactly these parameter types, declared or inherited, null
+     * if there isn't one.
+     */
+    static Method getMethod(Class clazz, String methodName, Class<?>... parameterTypes) {
+        try {
+            final Method method = clazz.getMethod(methodName, parameterTypes);
+            method.setAccessible(true);
+            return method;
+        } catch (NoSuchMethodException ignored) {
+        }
+        return null;
+    }
+
     static void invokeMethod(Object object, Method method, Object... args) {
         try {
             if (method == null) return;
@@ -1,11 +1,35 @@
 package uk.co.chrisjenx.calligraphy;
 
+import android.content.ComponentCallbacks2;
+import android.content.Context;
 import android.content.res.AssetManager;
+import android.content.res.Configuration;
 import android.graphics.Typeface;
+import android.os.ParcelFileDescriptor;
+import android.os.Process;
+import android.os.SystemClock;
 import android.util.Log;
 
-import java.util.HashMap;
+import java.io.File;
+import java.io.IOException;
+import java.lang.ref.WeakReference;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Locale;
 import java.util.Map;
+import java.util.WeakHashMap;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
 
 /**
  * A helper loading {@link android.graphics.Typeface} avoiding the leak of the font when loaded
@@ -14,12 +38,36 @@ import java.util.Map;
  * <p>
  * More details can be found here https://code.google.com/p/android/issues/detail?id=9904
  * <p>
+ * Loads are single-flight: each path is decoded at most once, callers asking for a font which is
+ * being decoded wait for that load only, and cache hits never take a lock.
+ * <p>
  * Created by Chris Jenkins on 04/09/13.
  */
 public final class TypefaceUtils {
 
-    private static final Map<String, Typeface> sCachedFonts = new HashMap<String, Typeface>();
-    private static final Map<Typeface, CalligraphyTypefaceSpan> sCachedSpans = new HashMap<Typeface, CalligraphyTypefaceSpan>();
+    private static final ConcurrentHashMap<String, TypefaceLoad> sCachedFonts = new ConcurrentHashMap<>();
+    /**
+     * Spans for Typefaces we didn't load or have evicted, ours keep theirs on the
+     * {@link TypefaceLoad}. Both the Typeface and its spans are only held weakly, so they go once
+     * no text uses them. Guarded by itself.
+     */
+    private static final Map<Typeface, WeakReference<CalligraphyTypefaceSpan>[]> sForeignSpans = new WeakHashMap<>();
+    /**
+     * Reverse index of {@link #sCachedFonts}, Typeface identity to its load. Copy on write as fonts
+     * are loaded rarely but looked up for every TextView.
+     */
+    private static volatile Map<Typeface, TypefaceLoad> sLoadsByTypeface = new IdentityHashMap<>();
+    private static final Object sLoadsByTypefaceLock = new Object();
+    /**
+     * One span per base style, plus one for {@link CalligraphyTypefaceSpan#STYLE_UNKNOWN}.
+     */
+    private static final int SPAN_VARIANTS = 5;
+    private static final int SPAN_STYLE_UNKNOWN = 4;
+    /**
+     * Only one trim at a time, lookups and loads never wait on this.
+     */
+    private static final Object sTrimLock = new Object();
+    private static volatile boolean sComponentCallbacksRegistered = false;
 
     /**
      * A helper loading a custom font.
@@ -29,22 +77,311 @@ public final class TypefaceUtils {
      * @return Return {@link android.graphics.Typeface} or null if the path is invalid.
      */
     public static Typeface load(final AssetManager assetManager, final String filePath) {
-        synchronized (sCachedFonts) {
-            try {
-                if (!sCachedFonts.containsKey(filePath)) {
-                    final Typeface typeface = Typeface.createFromAsset(assetManager, filePath);
-                    sCachedFonts.put(filePath, typeface);
-                    return typeface;
+        if (filePath == null) return null;
+        return load(obtainLoad(assetManager, filePath));
+    }
+
+    /**
+     * Load a font file from disk, such as a downloaded font or one in app private storage.
+     * Cached by its absolute path, just like asset fonts.
+     *
+     * @param file the font file.
+     * @return Return {@link android.graphics.Typeface} or null if the file can't be loaded.
+     */
+    public static Typeface load(final File file) {
+        if (file == null) return null;
+        // Just the stored path for an absolute file.
+        final String key = file.getAbsolutePath();
+        final TypefaceLoad load = getCachedLoad(key);
+        return load(load != null ? load : obtainLoad(key, new FontSource.FontFile(file)));
+    }
+
+    /**
+     * Load a font from an open file descriptor, such as one from a
+     * {@link android.content.ContentProvider}. The descriptor is only read the first time a key is
+     * requested and must stay open until this returns, you can close it afterwards.
+     *
+     * @param key            unique name for this font, returned by {@link #getFontPath(Typeface)}.
+     * @param fileDescriptor the font file.
+     * @return Return {@link android.graphics.Typeface} or null if the font can't be loaded.
+     */
+    public static Typeface load(final String key, final ParcelFileDescriptor fileDescriptor) {
+        if (key == null || fileDescriptor == null) return null;
+        // Only touch the descriptor on a miss, it may well be closed by now.
+        final TypefaceLoad load = getCachedLoad(key);
+        return load(load != null ? load : obtainLoad(key, new FontSource.Descriptor(fileDescriptor)));
+    }
+
+    private static Typeface load(final TypefaceLoad load) {
+        final CalligraphyConfig config = CalligraphyConfig.get();
+        final CalligraphyMetricsListener listener = config.getMetricsListener();
+        if (listener != null) listener.onTypefaceCacheLookup(load.mKey, load.isDone());
+        // Decodes on this thread if no one has started this load yet, otherwise a no-op.
+        load.run();
+        if (config.getMaxFontCacheSize() != CalligraphyConfig.Builder.FONT_CACHE_UNBOUNDED) {
+            load.markUsed();
+        }
+        return load.getTypeface();
+    }
+
+    /**
+     * Decode fonts on a background thread so they are ready by the time views need them.
+     * Inflating a view which needs a font that is still queued will load just that font on the
+     * calling thread, it never waits for the rest of the batch.
+     *
+     * @param assetManager App's asset manager.
+     * @param filePaths    paths of the font files to load, nulls are ignored.
+     * @return handle to wait on or observe the preload.
+     */
+    public static FontPreload preloadAsync(final AssetManager assetManager, final String... filePaths) {
+        final FontPreload preload = new FontPreload();
+        for (String filePath : filePaths) {
+            preload(preload, assetManager, filePath);
+        }
+        preload.onFinished();
+        return preload;
+    }
+
+    /**
+     * Preload the default font and everything registered with
+     * {@link CalligraphyConfig.Builder#addPreloadFontPath(String)} and
+     * {@link CalligraphyConfig.Builder#addPreloadFontFolder(String)}.
+     * Call this from your {@link android.app.Application#onCreate()} after
+     * {@link CalligraphyConfig#initDefault(CalligraphyConfig)}.
+     *
+     * @param context any context, only used for its assets.
+     * @return handle to wait on or observe the preload.
+     * @see #preloadAsync(AssetManager, String...)
+     */
+    public static FontPreload preloadAsync(final Context context) {
+        final CalligraphyConfig config = CalligraphyConfig.get();
+        final AssetManager assetManager = context.getAssets();
+        final FontPreload preload = new FontPreload();
+        if (config.isFontSet()) {
+            preload(preload, assetManager, config.getFontPath());
+        }
+        for (String filePath : config.getPreloadFontPaths()) {
+            preload(preload, assetManager, filePath);
+        }
+        for (final String folder : config.getPreloadFontFolders()) {
+            preload.onStarted();
+            getPreloadExecutor().execute(new Runnable() {
+                @Override
+                public void run() {
+                    try {
+                        final String prefix = folder.endsWith("/") ? folder : folder + "/";
+                        final String[] fileNames = assetManager.list(folder);
+                        if (fileNames == null) return;
+                        for (String fileName : fileNames) {
+                            if (isFontFile(fileName)) {
+                                preload(preload, assetManager, prefix + fileName);
+                            }
+                        }
+                    } catch (IOException e) {
+                        Log.w("Calligraphy", "Can't list fonts in " + folder + ".", e);
+                    } finally {
+                        preload.onFinished();
+                    }
+                }
+            });
+        }
+        preload.onFinished();
+        return preload;
+    }
+
+    private static void preload(final FontPreload preload, final AssetManager assetManager, final String filePath) {
+        if (filePath == null) return;
+        final TypefaceLoad load = obtainLoad(assetManager, filePath);
+        if (load.isDone()) return;
+        preload.onStarted();
+        getPreloadExecutor().execute(new Runnable() {
+            @Override
+            public void run() {
+                try {
+                    load.run();
+                    // Someone else might have got there first, wait for them.
+                    load.getTypeface();
+                } finally {
+                    preload.onFinished();
                 }
-            } catch (Exception e) {
-                Log.w("Calligraphy", "Can't create asset from " + filePath + ". Make sure you have passed in the correct path and file name.", e);
-                sCachedFonts.put(filePath, null);
-                return null;
             }
-            return sCachedFonts.get(filePath);
+        });
+    }
+
+    private static boolean isFontFile(String fileName) {
+        final String name = fileName.toLowerCase(Locale.US);
+        return name.endsWith(".ttf") || name.endsWith(".otf") || name.endsWith(".ttc");
+    }
+
+    /**
+     * @return the cached load for this path, creating one (not yet started) if it's missing or
+     * failed and due a retry.
+     */
+    private static TypefaceLoad obtainLoad(final AssetManager assetManager, final String filePath) {
+        final TypefaceLoad load = getCachedLoad(filePath);
+        if (load != null) return load;
+        return obtainLoad(filePath, new FontSource.Asset(assetManager, filePath));
+    }
+
+    /**
+     * @return the load cached for the key, null if there is none or it failed and can be retried.
+     */
+    private static TypefaceLoad getCachedLoad(final String key) {
+        final TypefaceLoad load = sCachedFonts.get(key);
+        return load != null && !load.isRetryable() ? load : null;
+    }
+
+    private static TypefaceLoad obtainLoad(final String key, final FontSource source) {
+        TypefaceLoad load = sCachedFonts.get(key);
+        while (load == null || load.isRetryable()) {
+            final TypefaceLoad newLoad = new TypefaceLoad(key, source);
+            final boolean won = load == null
+                    ? sCachedFonts.putIfAbsent(key, newLoad) == null
+                    : sCachedFonts.replace(key, load, newLoad);
+            load = won ? newLoad : sCachedFonts.get(key);
+        }
+        return load;
+    }
+
+    private static Executor getPreloadExecutor() {
+        return PreloadExecutorHolder.EXECUTOR;
+    }
+
+    /**
+     * Lazy holder, the pool is only created when something is preloaded.
+     */
+    private static final class PreloadExecutorHolder {
+        /**
+         * Decoding is mostly IO and native work, a couple of threads is plenty and leaves the cores
+         * to the app starting up.
+         */
+        private static final int POOL_SIZE = Math.max(1, Math.min(2, Runtime.getRuntime().availableProcessors() - 1));
+
+        static final Executor EXECUTOR;
+
+        static {
+            final ThreadPoolExecutor executor = new ThreadPoolExecutor(POOL_SIZE, POOL_SIZE,
+                    1, TimeUnit.SECONDS, new LinkedBlockingQueue<Runnable>(), new ThreadFactory() {
+                @Override
+                public Thread newThread(final Runnable runnable) {
+                    final Thread thread = new Thread(new Runnable() {
+                        @Override
+                        public void run() {
+                            Process.setThreadPriority(Process.THREAD_PRIORITY_BACKGROUND);
+                            runnable.run();
+                        }
+                    }, "Calligraphy-preload");
+                    thread.setDaemon(true);
+                    return thread;
+                }
+            });
+            executor.allowCoreThreadTimeOut(true);
+            EXECUTOR = executor;
+        }
+    }
+
+    /**
+     * Let the font cache react to {@link ComponentCallbacks2#onTrimMemory(int)}, evicting least
+     * recently used fonts (never the default font or its family) down to
+     * {@link CalligraphyConfig.Builder#setFontCacheTrimFloor(long)} when memory is tight.
+     * Safe to call more than once.
+     *
+     * @param context any context, callbacks are registered on the application context.
+     */
+    public static void registerComponentCallbacks(Context context) {
+        synchronized (sTrimLock) {
+            if (sComponentCallbacksRegistered) return;
+            sComponentCallbacksRegistered = true;
         }
+        context.getApplicationContext().registerComponentCallbacks(new ComponentCallbacks2() {
+            @Override
+            public void onTrimMemory(int level) {
+                TypefaceUtils.onTrimMemory(level);
+            }
+
+            @Override
+            public void onConfigurationChanged(Configuration newConfig) {
+            }
+
+            @Override
+            public void onLowMemory() {
+                TypefaceUtils.onTrimMemory(TRIM_MEMORY_COMPLETE);
+            }
+        });
     }
 
+    /**
+     * Shrink the font cache for the given memory level, if you dispatch
+     * {@link ComponentCallbacks2#onTrimMemory(int)} yourself instead of using
+     * {@link #registerComponentCallbacks(Context)}.
+     *
+     * @param level the level passed to {@link ComponentCallbacks2#onTrimMemory(int)}.
+     */
+    public static void onTrimMemory(int level) {
+        final long floor = CalligraphyConfig.get().getFontCacheTrimFloor();
+        if (level >= ComponentCallbacks2.TRIM_MEMORY_MODERATE
+                || level == ComponentCallbacks2.TRIM_MEMORY_RUNNING_CRITICAL) {
+            trimToSize(floor, false, null);
+        } else if (level >= ComponentCallbacks2.TRIM_MEMORY_RUNNING_LOW) {
+            trimToSize(floor, true, null);
+        }
+    }
+
+    /**
+     * Evict least recently used fonts until the evictable ones (everything but the default font
+     * and its family members) fit in {@code maxSize}.
+     *
+     * @param maxSize in bytes of font file.
+     * @param halve   if true only evict down to half of the current size, but never below maxSize.
+     * @param loaded  the font whose load triggered this, or null. It's never evicted, and fonts
+     *                bigger than maxSize on their own are left out, evicting them would only
+     *                have them decoded again on their next use.
+     */
+    private static void trimToSize(long maxSize, boolean halve, TypefaceLoad loaded) {
+        synchronized (sTrimLock) {
+            final CalligraphyConfig config = CalligraphyConfig.get();
+            final String pinnedPath = config.getFontPath();
+            final CalligraphyFontFamily pinnedFamily = config.getFontFamily(pinnedPath);
+            final List<TypefaceLoad> loads = new ArrayList<>();
+            long size = 0;
+            for (TypefaceLoad load : sCachedFonts.values()) {
+                if (!load.isDone() || load.hasFailed() || isPinned(load.mKey, pinnedPath, pinnedFamily)) continue;
+                if (loaded != null && load.getSize() > maxSize) continue;
+                size += load.getSize();
+                if (load == loaded) continue;
+                // Snapshot, so the ordering can't change under the sort.
+                load.mTrimLastUsed = load.mLastUsed;
+                loads.add(load);
+            }
+            final long targetSize = halve ? Math.max(maxSize, size / 2) : maxSize;
+            if (size <= targetSize) return;
+            Collections.sort(loads, LEAST_RECENTLY_USED);
+            for (TypefaceLoad load : loads) {
+                if (size <= targetSize) break;
+                if (sCachedFonts.remove(load.mKey, load)) {
+                    final Typeface typeface = load.getTypeface();
+                    // Its spans go with it.
+                    removeLoadByTypeface(typeface);
+                    size -= load.getSize();
+                }
+            }
+        }
+    }
+
+    /**
+     * @return true for the default font and the members of its family.
+     */
+    private static boolean isPinned(String key, String pinnedPath, CalligraphyFontFamily pinnedFamily) {
+        return key.equals(pinnedPath) || (pinnedFamily != null && pinnedFamily.getDeclaredStyle(key) != -1);
+    }
+
+    private static final Comparator<TypefaceLoad> LEAST_RECENTLY_USED = new Comparator<TypefaceLoad>() {
+        @Override
+        public int compare(TypefaceLoad lhs, TypefaceLoad rhs) {
+            return lhs.mTrimLastUsed < rhs.mTrimLastUsed ? -1 : (lhs.mTrimLastUsed == rhs.mTrimLastUsed ? 0 : 1);
+        }
+    };
+
     /**
      * A helper loading custom spans so we don't have to keep creating hundreds of spans.
      *
@@ -52,14 +389,49 @@ public final class TypefaceUtils {
      * @return will return null of typeface passed in is null.
      */
     public static CalligraphyTypefaceSpan getSpan(final Typeface typeface) {
+        return getSpan(typeface, CalligraphyTypefaceSpan.STYLE_UNKNOWN);
+    }
+
+    /**
+     * Like {@link #getSpan(Typeface)} but for text whose underlying style is known, the span works
+     * out up front what it needs to fake rather than on every measure and draw.
+     * Safe to call from any thread, and lock free for Typefaces we loaded.
+     *
+     * @param typeface  not null typeface
+     * @param baseStyle style of the paint the span is drawn over, e.g. the TextView's
+     *                  {@link Typeface#getStyle()}, or {@link CalligraphyTypefaceSpan#STYLE_UNKNOWN}.
+     * @return will return null of typeface passed in is null.
+     */
+    public static CalligraphyTypefaceSpan getSpan(final Typeface typeface, final int baseStyle) {
         if (typeface == null) return null;
-        synchronized (sCachedSpans) {
-            if (!sCachedSpans.containsKey(typeface)) {
-                final CalligraphyTypefaceSpan span = new CalligraphyTypefaceSpan(typeface);
-                sCachedSpans.put(typeface, span);
-                return span;
+        final int index = baseStyle == CalligraphyTypefaceSpan.STYLE_UNKNOWN
+                ? SPAN_STYLE_UNKNOWN : baseStyle & Typeface.BOLD_ITALIC;
+        final TypefaceLoad load = sLoadsByTypeface.get(typeface);
+        if (load == null) return getForeignSpan(typeface, baseStyle, index);
+        final CalligraphyTypefaceSpan[] spans = load.mSpans;
+        CalligraphyTypefaceSpan span = spans[index];
+        if (span == null) {
+            // Racing threads might both create one, spans are immutable so either is fine.
+            span = CalligraphyTypefaceSpan.create(typeface, baseStyle);
+            spans[index] = span;
+        }
+        return span;
+    }
+
+    @SuppressWarnings("unchecked")
+    private static CalligraphyTypefaceSpan getForeignSpan(final Typeface typeface, final int baseStyle, final int index) {
+        synchronized (sForeignSpans) {
+            WeakReference<CalligraphyTypefaceSpan>[] spans = sForeignSpans.get(typeface);
+            if (spans == null) {
+                spans = (WeakReference<CalligraphyTypefaceSpan>[]) new WeakReference[SPAN_VARIANTS];
+                sForeignSpans.put(typeface, spans);
             }
-            return sCachedSpans.get(typeface);
+            CalligraphyTypefaceSpan span = spans[index] != null ? spans[index].get() : null;
+            if (span == null) {
+                span = CalligraphyTypefaceSpan.create(typeface, baseStyle);
+                spans[index] = new WeakReference<>(span);
+            }
+            return span;
         }
     }
 
@@ -70,7 +442,189 @@ public final class TypefaceUtils {
      * @return true if we have loaded it false otherwise.
      */
     public static boolean isLoaded(Typeface typeface) {
-        return typeface != null && sCachedFonts.containsValue(typeface);
+        return getFontPath(typeface) != null;
+    }
+
+    /**
+     * Which font file did we load this typeface from?
+     *
+     * @param typeface nullable, the typeface to look up.
+     * @return the path passed to {@link #load(AssetManager, String)}, the absolute path of a file
+     * passed to {@link #load(File)}, the key passed to {@link #load(String, ParcelFileDescriptor)}
+     * or null if not one of ours.
+     */
+    public static String getFontPath(Typeface typeface) {
+        if (typeface == null) return null;
+        final TypefaceLoad load = sLoadsByTypeface.get(typeface);
+        return load != null ? load.mKey : null;
+    }
+
+    /**
+     * @return the typeface's style, including the bold/italic it really has as a member of a
+     * {@link CalligraphyFontFamily}, which a font file loaded on its own doesn't report.
+     */
+    static int getStyle(final Typeface typeface) {
+        return typeface.getStyle() | CalligraphyConfig.get().getDeclaredFontStyle(getFontPath(typeface));
+    }
+
+    private static void putLoadByTypeface(Typeface typeface, TypefaceLoad load) {
+        synchronized (sLoadsByTypefaceLock) {
+            final Map<Typeface, TypefaceLoad> loads = new IdentityHashMap<>(sLoadsByTypeface);
+            loads.put(typeface, load);
+            sLoadsByTypeface = loads;
+        }
+    }
+
+    private static void removeLoadByTypeface(Typeface typeface) {
+        synchronized (sLoadsByTypefaceLock) {
+            final Map<Typeface, TypefaceLoad> loads = new IdentityHashMap<>(sLoadsByTypeface);
+            loads.remove(typeface);
+            sLoadsByTypeface = loads;
+        }
+    }
+
+    /**
+     * Forget every font which failed to load, so the next request for it tries again.
+     * Called when a new {@link CalligraphyConfig} is set.
+     */
+    static void clearFailedLoads() {
+        for (Map.Entry<String, TypefaceLoad> entry : sCachedFonts.entrySet()) {
+            if (entry.getValue().hasFailed()) {
+                sCachedFonts.remove(entry.getKey(), entry.getValue());
+            }
+        }
+    }
+
+    /**
+     * A single decode of a font file. The first caller to {@link #run()} does the work, everyone
+     * else waits on {@link #getTypeface()}.
+     */
+    private static final class TypefaceLoad extends FutureTask<Typeface> {
+
+        private static final long NOT_FAILED = -1;
+        private static final long SIZE_UNKNOWN = -1;
+
+        private final String mKey;
+        private final FontSource mSource;
+        /**
+         * Spans for this Typeface by base style, see {@link #getSpan(Typeface, int)}.
+         */
+        private final CalligraphyTypefaceSpan[] mSpans = new CalligraphyTypefaceSpan[SPAN_VARIANTS];
+        /**
+         * Size of the font file, only looked up when the cache needs to be trimmed.
+         */
+        private volatile long mSize = SIZE_UNKNOWN;
+        /**
+         * {@link System#nanoTime()} of the last cache hit, only tracked when the cache is bounded.
+         */
+        private volatile long mLastUsed = System.nanoTime();
+        /**
+         * Copy of {@link #mLastUsed}, guarded by {@link #sTrimLock}.
+         */
+        private long mTrimLastUsed;
+
+        /**
+         * {@link SystemClock#elapsedRealtime()} of when this load failed, or {@link #NOT_FAILED}.
+         */
+        private volatile long mFailedAt = NOT_FAILED;
+
+        TypefaceLoad(final String key, final FontSource source) {
+            super(new Callable<Typeface>() {
+                @Override
+                public Typeface call() {
+                    final CalligraphyMetricsListener listener = CalligraphyConfig.get().getMetricsListener();
+                    final long start = listener != null ? System.nanoTime() : 0;
+                    Typeface typeface = null;
+                    try {
+                        typeface = source.createTypeface();
+                    } catch (Exception e) {
+                        Log.w("Calligraphy", "Can't create typeface from " + source + ". Make sure you have passed in the correct path and file name.", e);
+                    }
+                    if (listener != null) listener.onTypefaceLoaded(key, System.nanoTime() - start, typeface != null);
+                    return typeface;
+                }
+            });
+            mKey = key;
+            mSource = source;
+        }
+
+        /**
+         * Runs before waiters are released, so anyone holding the result can already find it in
+         * the reverse index.
+         */
+        @Override
+        protected void set(Typeface typeface) {
+            if (typeface != null) {
+                putLoadByTypeface(typeface, this);
+            } else {
+                mFailedAt = SystemClock.elapsedRealtime();
+            }
+            super.set(typeface);
+            final long maxSize = CalligraphyConfig.get().getMaxFontCacheSize();
+            if (typeface != null && maxSize != CalligraphyConfig.Builder.FONT_CACHE_UNBOUNDED) {
+                if (getSize() > maxSize) {
+                    Log.w("Calligraphy", mSource + " is bigger than the font cache (" + maxSize + " bytes), it's kept but not counted against it.");
+                }
+                trimToSize(maxSize, false, this);
+            }
+        }
+
+        void markUsed() {
+            mLastUsed = System.nanoTime();
+        }
+
+        /**
+         * @return the font file size in bytes, 0 if we can't tell.
+         */
+        long getSize() {
+            long size = mSize;
+            if (size == SIZE_UNKNOWN) {
+                try {
+                    size = mSource.getSize();
+                } catch (IOException ignore) {
+                    // Loaded fine but can't be opened again? Treat it as free.
+                    size = 0;
+                }
+                mSize = size;
+            }
+            return size;
+        }
+
+        boolean hasFailed() {
+            return mFailedAt != NOT_FAILED;
+        }
+
+        /**
+         * @return true if this load failed and the configured retry delay has passed since.
+         */
+        boolean isRetryable() {
+            final long failedAt = mFailedAt;
+            if (failedAt == NOT_FAILED) return false;
+            final long retryDelay = CalligraphyConfig.get().getFontLoadRetryDelay();
+            return retryDelay >= 0 && SystemClock.elapsedRealtime() - failedAt >= retryDelay;
+        }
+
+        /**
+         * Blocks until the load has finished.
+         *
+         * @return the loaded Typeface or null if it failed.
+         */
+        Typeface getTypeface() {
+            boolean interrupted = false;
+            try {
+                while (true) {
+                    try {
+                        return get();
+                    } catch (InterruptedException e) {
+                        interrupted = true;
+                    } catch (ExecutionException e) {
+                        return null;
+                    }
+                }
+            } finally {
+                if (interrupted) Thread.currentThread().interrupt();
+            }
+        }
     }
 
     private TypefaceUtils() {
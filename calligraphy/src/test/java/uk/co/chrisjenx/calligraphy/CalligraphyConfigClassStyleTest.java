@@ -0,0 +1,90 @@
+package uk.co.chrisjenx.calligraphy;
+
+import android.content.Context;
+import android.widget.Button;
+import android.widget.Chronometer;
+import android.widget.Switch;
+import android.widget.TextView;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.RuntimeEnvironment;
+
+import static org.junit.Assert.assertEquals;
+
+/**
+ * Which theme style a TextView's font is looked up in, from its class.
+ */
+@RunWith(RobolectricTestRunner.class)
+public class CalligraphyConfigClassStyleTest {
+
+    private static final int CUSTOM_STYLE = 0x7f0100ff;
+    private static final int FIELD_STYLE = 0x7f0100fe;
+
+    @Test
+    public void defaultStylesOnlyApplyToTheirOwnClass() {
+        final CalligraphyConfig config = new CalligraphyConfig.Builder().build();
+
+        assertEquals(android.R.attr.textViewStyle, config.getClassStyle(TextView.class));
+        assertEquals(android.R.attr.buttonStyle, config.getClassStyle(Button.class));
+        assertEquals(CalligraphyConfig.NO_CLASS_STYLE, config.getClassStyle(Switch.class));
+        assertEquals(CalligraphyConfig.NO_CLASS_STYLE, config.getClassStyle(Chronometer.class));
+        assertEquals(CalligraphyConfig.NO_CLASS_STYLE, config.getClassStyle(CustomTextView.class));
+        assertEquals(CalligraphyConfig.NO_CLASS_STYLE, config.getClassStyle(FieldTextView.class));
+    }
+
+    @Test
+    public void customTextViewSubclassResolutionOrder() {
+        // Nothing added, the custom TextView falls back to textAppearance as it always has.
+        CalligraphyConfig.initDefault(new CalligraphyConfig.Builder().build());
+        final TextView view = new FieldTextView(RuntimeEnvironment.application);
+        assertEquals(android.R.attr.textAppearance, CalligraphyFactory.getStyleForTextView(view, -1));
+
+        // Adding TextView passes textViewStyle on to its subclasses.
+        CalligraphyConfig.initDefault(new CalligraphyConfig.Builder()
+                .addCustomStyle(TextView.class, android.R.attr.textViewStyle)
+                .build());
+        assertEquals(android.R.attr.textViewStyle, CalligraphyFactory.getStyleForTextView(view, -1));
+
+        // A closer added class wins over TextView.
+        CalligraphyConfig.initDefault(new CalligraphyConfig.Builder()
+                .addCustomStyle(TextView.class, android.R.attr.textViewStyle)
+                .addCustomStyle(CustomTextView.class, CUSTOM_STYLE)
+                .build());
+        assertEquals(CUSTOM_STYLE, CalligraphyFactory.getStyleForTextView(view, -1));
+
+        // And the class's own style wins over everything.
+        CalligraphyConfig.initDefault(new CalligraphyConfig.Builder()
+                .addCustomStyle(TextView.class, android.R.attr.textViewStyle)
+                .addCustomStyle(CustomTextView.class, CUSTOM_STYLE)
+                .addCustomStyle(FieldTextView.class, FIELD_STYLE)
+                .build());
+        assertEquals(FIELD_STYLE, CalligraphyFactory.getStyleForTextView(view, -1));
+    }
+
+    @Test
+    public void closestDefaultStyleStopsTheWalk() {
+        // Switch extends Button, whose default style isn't passed on, so TextView's isn't either.
+        final CalligraphyConfig config = new CalligraphyConfig.Builder()
+                .addCustomStyle(TextView.class, android.R.attr.textViewStyle)
+                .build();
+
+        assertEquals(CalligraphyConfig.NO_CLASS_STYLE, config.getClassStyle(Switch.class));
+        assertEquals(android.R.attr.textViewStyle, config.getClassStyle(Chronometer.class));
+    }
+
+    public static class CustomTextView extends TextView {
+
+        public CustomTextView(Context context) {
+            super(context);
+        }
+    }
+
+    public static class FieldTextView extends CustomTextView {
+
+        public FieldTextView(Context context) {
+            super(context);
+        }
+    }
+}
@@ -0,0 +1,148 @@
+package uk.co.chrisjenx.calligraphy;
+
+import android.content.Context;
+import android.graphics.Typeface;
+import android.util.AttributeSet;
+import android.view.View;
+import android.widget.TextView;
+
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.junit.runner.RunWith;
+import org.robolectric.Robolectric;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.RuntimeEnvironment;
+
+import java.io.File;
+import java.io.IOException;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * TextViews are recognised as done by their Typeface, only other views are tagged, so inflating
+ * TextViews doesn't give each one a keyed tag SparseArray.
+ */
+@RunWith(RobolectricTestRunner.class)
+public class CalligraphyFactoryTagTest {
+
+    private static final int VIEWS = 300;
+    /**
+     * Least a keyed tag costs a view: the SparseArray plus its key and value arrays, each at
+     * least an object header.
+     */
+    private static final int MIN_TAG_BYTES = 3 * 12;
+
+    @Rule
+    public final TemporaryFolder mFolder = new TemporaryFolder();
+
+    private Context mContext;
+    private CalligraphyFactory mFactory;
+    private Typeface mDefaultTypeface;
+
+    @Before
+    public void setUp() throws IOException {
+        final File defaultFont = TestFonts.newFontFile(mFolder, "default.ttf");
+        CalligraphyConfig.initDefault(new CalligraphyConfig.Builder()
+                .setDefaultFontPath(defaultFont.getAbsolutePath())
+                .build());
+        // Cached by its path, which is the default font path.
+        mDefaultTypeface = TypefaceUtils.load(defaultFont);
+        assertNotNull(mDefaultTypeface);
+        mContext = RuntimeEnvironment.application;
+        mFactory = CalligraphyFactory.get(R.attr.fontPath);
+    }
+
+    @Test
+    public void styledTextViewsAreNotTagged() {
+        final AttributeSet attrs = TestAttributes.build(Robolectric.buildAttributeSet());
+        final TextView[] views = newTextViews(attrs);
+        for (TextView view : views) {
+            mFactory.onViewCreated(view, mContext, attrs);
+            assertSame(mDefaultTypeface, view.getTypeface());
+            assertNull(view.getTag(R.id.calligraphy_tag_id));
+        }
+
+        // Seen again, e.g. by a second factory, they're skipped by their Typeface without tagging them.
+        final long allocated = FontResolutionAllocationTest.allocatedBytes();
+        for (TextView view : views) {
+            mFactory.onViewCreated(view, mContext, attrs);
+        }
+        final long revisitBytes = FontResolutionAllocationTest.allocatedBytes() - allocated;
+        assertTrue("Allocated " + revisitBytes + " bytes revisiting " + VIEWS + " TextViews", revisitBytes <= VIEWS);
+        for (TextView view : views) {
+            assertNull(view.getTag(R.id.calligraphy_tag_id));
+        }
+    }
+
+    @Test
+    public void notTaggingSavesHeapPerTextView() {
+        final AttributeSet attrs = TestAttributes.build(Robolectric.buildAttributeSet());
+        // Resolves the style and fills the caches.
+        mFactory.onViewCreated(new TextView(mContext, attrs), mContext, attrs);
+        final TextView[] untagged = newTextViews(attrs);
+        final TextView[] tagged = newTextViews(attrs);
+
+        long allocated = FontResolutionAllocationTest.allocatedBytes();
+        for (TextView view : untagged) {
+            mFactory.onViewCreated(view, mContext, attrs);
+        }
+        final long untaggedBytes = FontResolutionAllocationTest.allocatedBytes() - allocated;
+
+        // As every TextView used to be marked.
+        allocated = FontResolutionAllocationTest.allocatedBytes();
+        for (TextView view : tagged) {
+            mFactory.onViewCreated(view, mContext, attrs);
+            view.setTag(R.id.calligraphy_tag_id, Boolean.TRUE);
+        }
+        final long taggedBytes = FontResolutionAllocationTest.allocatedBytes() - allocated;
+
+        // The views hold on to all of it, it's heap for as long as they live.
+        assertTrue("Styling " + VIEWS + " TextViews took " + untaggedBytes + " bytes untagged, "
+                        + taggedBytes + " bytes tagged",
+                taggedBytes - untaggedBytes >= (long) VIEWS * MIN_TAG_BYTES);
+        assertTrue("Styling " + VIEWS + " TextViews untagged took " + untaggedBytes + " bytes", untaggedBytes <= VIEWS);
+    }
+
+    @Test
+    public void otherViewsAreTaggedAndOnlyStyledOnce() {
+        final TypefaceView view = new TypefaceView(mContext);
+
+        mFactory.onViewCreated(view, mContext, null);
+        assertSame(Boolean.TRUE, view.getTag(R.id.calligraphy_tag_id));
+        assertSame(mDefaultTypeface, view.mTypeface);
+        assertEquals(1, view.mSetTypefaceCalls);
+
+        mFactory.onViewCreated(view, mContext, null);
+        assertEquals(1, view.mSetTypefaceCalls);
+    }
+
+    private TextView[] newTextViews(AttributeSet attrs) {
+        final TextView[] views = new TextView[VIEWS];
+        for (int i = 0; i < VIEWS; i++) {
+            views[i] = new TextView(mContext, attrs);
+        }
+        return views;
+    }
+
+    static class TypefaceView extends View implements HasTypeface {
+
+        Typeface mTypeface;
+        int mSetTypefaceCalls;
+
+        TypefaceView(Context context) {
+            super(context);
+        }
+
+        @Override
+        public void setTypeface(Typeface typeface) {
+            mTypeface = typeface;
+            mSetTypefaceCalls++;
+        }
+    }
+}
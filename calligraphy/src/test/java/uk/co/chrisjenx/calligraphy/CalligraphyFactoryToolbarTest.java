@@ -0,0 +1,129 @@
+package uk.co.chrisjenx.calligraphy;
+
+import android.content.Context;
+import android.graphics.Typeface;
+import android.support.v7.widget.Toolbar;
+import android.view.View;
+import android.widget.TextView;
+
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.RuntimeEnvironment;
+
+import java.io.File;
+import java.io.IOException;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+
+/**
+ * The Toolbar creates its title and subtitle views lazily, they're styled when it does, without
+ * setting any text on it.
+ */
+@RunWith(RobolectricTestRunner.class)
+public class CalligraphyFactoryToolbarTest {
+
+    @Rule
+    public final TemporaryFolder mFolder = new TemporaryFolder();
+
+    private Context mContext;
+    private CalligraphyFactory mFactory;
+    private Typeface mDefaultTypeface;
+
+    @Before
+    public void setUp() throws IOException {
+        final File defaultFont = TestFonts.newFontFile(mFolder, "default.ttf");
+        CalligraphyConfig.initDefault(new CalligraphyConfig.Builder()
+                .setDefaultFontPath(defaultFont.getAbsolutePath())
+                .build());
+        // Cached by its path, which is the default font path.
+        mDefaultTypeface = TypefaceUtils.load(defaultFont);
+        assertNotNull(mDefaultTypeface);
+        mContext = RuntimeEnvironment.application;
+        mFactory = new CalligraphyFactory(R.attr.fontPath);
+    }
+
+    @Test
+    public void emptyToolbarIsLeftAlone() {
+        final CountingToolbar toolbar = new CountingToolbar(mContext);
+
+        mFactory.onViewCreated(toolbar, mContext, null);
+        layout(toolbar);
+
+        assertEquals(0, toolbar.mSetTextCalls);
+        assertNull(toolbar.getTitle());
+        assertNull(toolbar.getSubtitle());
+        assertEquals(0, toolbar.getChildCount());
+    }
+
+    @Test
+    public void titleAndSubtitleAreStyledWhenTheToolbarAddsThem() {
+        final CountingToolbar toolbar = new CountingToolbar(mContext);
+        mFactory.onViewCreated(toolbar, mContext, null);
+        layout(toolbar);
+
+        toolbar.setTitle("Title");
+        layout(toolbar);
+        assertEquals(1, toolbar.getChildCount());
+        assertSame(mDefaultTypeface, ((TextView) toolbar.getChildAt(0)).getTypeface());
+
+        toolbar.setSubtitle("Subtitle");
+        layout(toolbar);
+        assertEquals(2, toolbar.getChildCount());
+        assertSame(mDefaultTypeface, ((TextView) toolbar.getChildAt(1)).getTypeface());
+
+        // Only the app's own calls.
+        assertEquals(2, toolbar.mSetTextCalls);
+        assertEquals("Title", toolbar.getTitle());
+        assertEquals("Subtitle", toolbar.getSubtitle());
+    }
+
+    @Test
+    public void existingTitleIsStyledWithoutChangingIt() {
+        final CountingToolbar toolbar = new CountingToolbar(mContext);
+        toolbar.setTitle("Title");
+        toolbar.setSubtitle("Title");
+
+        mFactory.onViewCreated(toolbar, mContext, null);
+
+        assertEquals(2, toolbar.mSetTextCalls);
+        assertEquals(2, toolbar.getChildCount());
+        assertSame(mDefaultTypeface, ((TextView) toolbar.getChildAt(0)).getTypeface());
+        assertSame(mDefaultTypeface, ((TextView) toolbar.getChildAt(1)).getTypeface());
+        assertEquals("Title", toolbar.getTitle());
+        assertEquals("Title", toolbar.getSubtitle());
+    }
+
+    private static void layout(View view) {
+        final int spec = View.MeasureSpec.makeMeasureSpec(100, View.MeasureSpec.EXACTLY);
+        view.measure(spec, spec);
+        view.layout(0, 0, 100, 100);
+    }
+
+    static class CountingToolbar extends Toolbar {
+
+        int mSetTextCalls;
+
+        CountingToolbar(Context context) {
+            super(context);
+        }
+
+        @Override
+        public void setTitle(CharSequence title) {
+            mSetTextCalls++;
+            super.setTitle(title);
+        }
+
+        @Override
+        public void setSubtitle(CharSequence subtitle) {
+            mSetTextCalls++;
+            super.setSubtitle(subtitle);
+        }
+    }
+}
@@ -0,0 +1,63 @@
+package uk.co.chrisjenx.calligraphy;
+
+import android.content.Context;
+import android.util.AttributeSet;
+import android.view.View;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+
+import java.lang.reflect.Constructor;
+
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+
+/**
+ * Custom view constructors are cached per name and ClassLoader, looking a name up with several
+ * ClassLoaders doesn't resolve it again each time.
+ */
+@RunWith(RobolectricTestRunner.class)
+public class CalligraphyLayoutInflaterConstructorTest {
+
+    @Test
+    public void constructorsAreCachedPerClassLoader() {
+        final String name = CustomView.class.getName();
+        final ClassLoader appClassLoader = getClass().getClassLoader();
+        final ClassLoader otherClassLoader = new ClassLoader(appClassLoader) {
+        };
+
+        // Each resolve returns a new Constructor, so the same one means it came from the cache.
+        final Constructor<? extends View> appConstructor = CalligraphyLayoutInflater.getViewConstructor(name, appClassLoader);
+        final Constructor<? extends View> otherConstructor = CalligraphyLayoutInflater.getViewConstructor(name, otherClassLoader);
+        assertNotNull(appConstructor);
+        assertNotNull(otherConstructor);
+        assertNotSame(appConstructor, otherConstructor);
+
+        for (int i = 0; i < 3; i++) {
+            assertSame(appConstructor, CalligraphyLayoutInflater.getViewConstructor(name, appClassLoader));
+            assertSame(otherConstructor, CalligraphyLayoutInflater.getViewConstructor(name, otherClassLoader));
+        }
+    }
+
+    @Test
+    public void unresolvedNamesAreCachedPerClassLoader() {
+        final String name = "uk.co.chrisjenx.calligraphy.NoSuchView";
+        final ClassLoader appClassLoader = getClass().getClassLoader();
+        final ClassLoader otherClassLoader = new ClassLoader(appClassLoader) {
+        };
+
+        assertNull(CalligraphyLayoutInflater.getViewConstructor(name, appClassLoader));
+        assertNull(CalligraphyLayoutInflater.getViewConstructor(name, otherClassLoader));
+        assertNull(CalligraphyLayoutInflater.getViewConstructor(name, appClassLoader));
+    }
+
+    public static class CustomView extends View {
+
+        public CustomView(Context context, AttributeSet attrs) {
+            super(context);
+        }
+    }
+}
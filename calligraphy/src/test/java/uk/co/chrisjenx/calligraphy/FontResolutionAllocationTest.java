@@ -0,0 +1,147 @@
+package uk.co.chrisjenx.calligraphy;
+
+import android.content.Context;
+import android.graphics.Typeface;
+import android.util.AttributeSet;
+import android.widget.TextView;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.junit.runner.RunWith;
+import org.robolectric.Robolectric;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.RuntimeEnvironment;
+
+import java.io.File;
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assume.assumeTrue;
+
+/**
+ * Once a style's font is resolved and loaded, styling more views with it must not allocate, a
+ * TextView inflated into a long list shouldn't cost any garbage on top of the view itself.
+ */
+@RunWith(RobolectricTestRunner.class)
+public class FontResolutionAllocationTest {
+
+    private static final int VIEWS = 1000;
+    /**
+     * Bytes allowed for a whole run, covers the measuring itself. Any allocation per view is at
+     * least an object header and blows through it.
+     */
+    private static final long BUDGET_BYTES = VIEWS;
+
+    @Rule
+    public final TemporaryFolder mFolder = new TemporaryFolder();
+
+    private Context mContext;
+    private CalligraphyFactory mFactory;
+    private String mFontPath;
+    private Typeface mDefaultTypeface;
+    private Typeface mTypeface;
+
+    @Before
+    public void setUp() throws IOException {
+        final File defaultFont = TestFonts.newFontFile(mFolder, "default.ttf");
+        final File font = TestFonts.newFontFile(mFolder, "font.ttf");
+        CalligraphyConfig.initDefault(new CalligraphyConfig.Builder()
+                .setDefaultFontPath(defaultFont.getAbsolutePath())
+                .build());
+        // Fonts loaded from files are cached by their path, which the views use as fontPath.
+        mDefaultTypeface = TypefaceUtils.load(defaultFont);
+        mTypeface = TypefaceUtils.load(font);
+        mFontPath = font.getAbsolutePath();
+        assertNotNull(mDefaultTypeface);
+        assertNotNull(mTypeface);
+        mContext = RuntimeEnvironment.application;
+        mFactory = new CalligraphyFactory(R.attr.fontPath);
+        FontResolutionCache.beginInflation();
+    }
+
+    @After
+    public void tearDown() {
+        FontResolutionCache.endInflation();
+    }
+
+    @Test
+    public void stylingTextViewsWithTheDefaultFontDoesNotAllocate() {
+        assertStylingDoesNotAllocate(TestAttributes.build(Robolectric.buildAttributeSet()), mDefaultTypeface);
+    }
+
+    @Test
+    public void stylingTextViewsWithAFontPathDoesNotAllocate() {
+        assertStylingDoesNotAllocate(TestAttributes.fontPath(mFontPath), mTypeface);
+    }
+
+    @Test
+    public void cachedFontResolutionDoesNotAllocate() {
+        final FontResolutionCache cache = FontResolutionCache.get(mContext);
+        cache.put(R.attr.fontPath, 0, 0, android.R.attr.textViewStyle, -1, FontResolution.NONE);
+
+        final long allocated = allocatedBytes();
+        for (int i = 0; i < VIEWS; i++) {
+            assertSame(cache, FontResolutionCache.get(mContext));
+            assertSame(FontResolution.NONE, cache.get(R.attr.fontPath, 0, 0, android.R.attr.textViewStyle, -1));
+        }
+        assertWithinBudget(allocatedBytes() - allocated);
+    }
+
+    @Test
+    public void pullingFontPathFromViewDoesNotAllocate() {
+        final AttributeSet attrs = TestAttributes.fontPath(mFontPath);
+        final String attributeName = CalligraphyUtils.getAttributeName(mContext, R.attr.fontPath);
+        assertEquals("fontPath", attributeName);
+
+        final long allocated = allocatedBytes();
+        for (int i = 0; i < VIEWS; i++) {
+            assertEquals(mFontPath, CalligraphyUtils.pullFontPathFromView(mContext, attrs, attributeName));
+            assertEquals(0, FontResolutionCache.getTextAppearanceResource(attrs));
+        }
+        assertWithinBudget(allocatedBytes() - allocated);
+    }
+
+    private void assertStylingDoesNotAllocate(AttributeSet attrs, Typeface expected) {
+        final TextView[] views = new TextView[VIEWS];
+        for (int i = 0; i < VIEWS; i++) {
+            views[i] = new TextView(mContext, attrs);
+        }
+        // Resolves the style and fills the caches.
+        final TextView first = new TextView(mContext, attrs);
+        mFactory.onViewCreated(first, mContext, attrs);
+        assertSame(expected, first.getTypeface());
+
+        final long allocated = allocatedBytes();
+        for (TextView view : views) {
+            mFactory.onViewCreated(view, mContext, attrs);
+        }
+        final long bytes = allocatedBytes() - allocated;
+        for (TextView view : views) {
+            assertSame(expected, view.getTypeface());
+        }
+        assertWithinBudget(bytes);
+    }
+
+    private static void assertWithinBudget(long allocated) {
+        assertTrue("Allocated " + allocated + " bytes for " + VIEWS + " views, budget is " + BUDGET_BYTES,
+                allocated <= BUDGET_BYTES);
+    }
+
+    /**
+     * @return bytes allocated by this thread so far, skips the test on JVMs that don't count them.
+     */
+    static long allocatedBytes() {
+        final java.lang.management.ThreadMXBean bean = ManagementFactory.getThreadMXBean();
+        assumeTrue(bean instanceof com.sun.management.ThreadMXBean);
+        final com.sun.management.ThreadMXBean threadBean = (com.sun.management.ThreadMXBean) bean;
+        assumeTrue(threadBean.isThreadAllocatedMemorySupported() && threadBean.isThreadAllocatedMemoryEnabled());
+        return threadBean.getThreadAllocatedBytes(Thread.currentThread().getId());
+    }
+}
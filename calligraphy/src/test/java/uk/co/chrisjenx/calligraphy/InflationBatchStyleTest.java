@@ -0,0 +1,115 @@
+package uk.co.chrisjenx.calligraphy;
+
+import android.content.ComponentCallbacks2;
+import android.content.Context;
+import android.graphics.Typeface;
+import android.util.AttributeSet;
+import android.util.TypedValue;
+import android.widget.TextView;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.junit.runner.RunWith;
+import org.robolectric.Robolectric;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.RuntimeEnvironment;
+
+import java.io.File;
+import java.io.IOException;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * A view's {@code style} can be a theme attribute, batched views are keyed and resolved by the
+ * style it points at rather than the attribute.
+ */
+@RunWith(RobolectricTestRunner.class)
+public class InflationBatchStyleTest {
+
+    private static final String THEME_ATTRIBUTE_STYLE = "?android:attr/textAppearanceLarge";
+
+    @Rule
+    public final TemporaryFolder mFolder = new TemporaryFolder();
+
+    private Context mContext;
+    private CalligraphyFactory mFactory;
+    private Typeface mDefaultTypeface;
+
+    @Before
+    public void setUp() throws IOException {
+        final File defaultFont = TestFonts.newFontFile(mFolder, "default.ttf");
+        CalligraphyConfig.initDefault(new CalligraphyConfig.Builder()
+                .setDefaultFontPath(defaultFont.getAbsolutePath())
+                .enableBatchedInflation()
+                .build());
+        TypefaceUtils.onTrimMemory(ComponentCallbacks2.TRIM_MEMORY_COMPLETE);
+        // Cached by its path, which is the default font path.
+        mDefaultTypeface = TypefaceUtils.load(defaultFont);
+        assertNotNull(mDefaultTypeface);
+        mContext = RuntimeEnvironment.application;
+        mFactory = new CalligraphyFactory(R.attr.fontPath);
+        FontResolutionCache.beginInflation();
+    }
+
+    @After
+    public void tearDown() {
+        FontResolutionCache.endInflation();
+    }
+
+    @Test
+    public void themeAttributeStyleResolvesToTheStyleItPointsAt() {
+        final AttributeSet attrs = styled(THEME_ATTRIBUTE_STYLE);
+        assertEquals(android.R.attr.textAppearanceLarge, attrs.getStyleAttribute());
+
+        final int styleRes = CalligraphyUtils.getStyleResource(mContext, attrs);
+        assertEquals(textAppearanceLargeStyle(), styleRes);
+        assertNotEquals(android.R.attr.textAppearanceLarge, styleRes);
+    }
+
+    @Test
+    public void batchedViewWithThemeAttributeStyleIsKeyedByItsStyle() {
+        final AttributeSet attrs = styled(THEME_ATTRIBUTE_STYLE);
+        final TextView view = new TextView(mContext, attrs);
+
+        InflationBatch.begin();
+        try {
+            mFactory.onViewCreated(view, mContext, attrs);
+            assertNull(FontResolutionCache.get(mContext).get(R.attr.fontPath, textAppearanceLargeStyle(), 0,
+                    android.R.attr.textViewStyle, -1));
+        } finally {
+            InflationBatch.end();
+        }
+
+        assertSame(mDefaultTypeface, view.getTypeface());
+        final FontResolutionCache cache = FontResolutionCache.get(mContext);
+        assertNotNull(cache.get(R.attr.fontPath, textAppearanceLargeStyle(), 0, android.R.attr.textViewStyle, -1));
+        assertNull(cache.get(R.attr.fontPath, android.R.attr.textAppearanceLarge, 0, android.R.attr.textViewStyle, -1));
+    }
+
+    @Test
+    public void themeAttributeNotPointingAtAStyleIsUncacheable() {
+        // Points at a color, so the view is resolved from its AttributeSet straight away.
+        final AttributeSet attrs = styled("?android:attr/colorForeground");
+        assertEquals(android.R.attr.colorForeground, attrs.getStyleAttribute());
+        assertEquals(FontResolutionCache.UNCACHEABLE_STYLE, CalligraphyUtils.getStyleResource(mContext, attrs));
+    }
+
+    private static AttributeSet styled(String style) {
+        return TestAttributes.build(Robolectric.buildAttributeSet().setStyleAttribute(style));
+    }
+
+    private int textAppearanceLargeStyle() {
+        final TypedValue value = new TypedValue();
+        assertTrue(mContext.getTheme().resolveAttribute(android.R.attr.textAppearanceLarge, value, true));
+        assertNotEquals(0, value.resourceId);
+        return value.resourceId;
+    }
+}
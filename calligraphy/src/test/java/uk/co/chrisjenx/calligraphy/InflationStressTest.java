@@ -0,0 +1,144 @@
+package uk.co.chrisjenx.calligraphy;
+
+import android.content.ComponentCallbacks2;
+import android.content.Context;
+import android.graphics.Typeface;
+import android.util.AttributeSet;
+import android.widget.TextView;
+
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.junit.runner.RunWith;
+import org.robolectric.Robolectric;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.RuntimeEnvironment;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertSame;
+
+/**
+ * Styles views from many threads at once through one CalligraphyFactory while their fonts load,
+ * and checks each font is loaded once and no view ends up with another view's font.
+ *
+ * Robolectric's framework isn't thread safe, so the views and their attributes are built on the
+ * test thread and the threads only run Calligraphy's own code on them. Fonts are raced one at a
+ * time, Robolectric can't create two at once, which still holds as long as the loads are single
+ * flight.
+ */
+@RunWith(RobolectricTestRunner.class)
+public class InflationStressTest {
+
+    private static final int THREADS = 8;
+    private static final int FONTS = 4;
+    private static final int VIEWS_PER_THREAD = 50;
+
+    @Rule
+    public final TemporaryFolder mFolder = new TemporaryFolder();
+
+    private Context mContext;
+    private CalligraphyFactory mFactory;
+    private Typeface mDefaultTypeface;
+
+    @Before
+    public void setUp() throws IOException {
+        final File defaultFont = TestFonts.newFontFile(mFolder, "default.ttf");
+        CalligraphyConfig.initDefault(new CalligraphyConfig.Builder()
+                .setDefaultFontPath(defaultFont.getAbsolutePath())
+                .build());
+        TypefaceUtils.onTrimMemory(ComponentCallbacks2.TRIM_MEMORY_COMPLETE);
+        // Cached by its path, which is the default font path.
+        mDefaultTypeface = TypefaceUtils.load(defaultFont);
+        assertNotNull(mDefaultTypeface);
+        mContext = RuntimeEnvironment.application;
+        mFactory = new CalligraphyFactory(R.attr.fontPath);
+        // Resolves the theme's default font and the attribute name while only one thread runs.
+        final TextView warmUp = new TextView(mContext);
+        mFactory.onViewCreated(warmUp, mContext, TestAttributes.build(Robolectric.buildAttributeSet()));
+        assertSame(mDefaultTypeface, warmUp.getTypeface());
+    }
+
+    @Test
+    public void concurrentStylingGivesEveryTextViewItsOwnFont() throws Exception {
+        final AttributeSet defaultAttrs = TestAttributes.build(Robolectric.buildAttributeSet());
+        for (int font = 0; font < FONTS; font++) {
+            // Fonts loaded from files are cached by their path, which the views use as fontPath.
+            final File fontFile = TestFonts.newFontFile(mFolder, "font" + font + ".ttf");
+            final AttributeSet fontAttrs = TestAttributes.fontPath(fontFile.getAbsolutePath());
+            final TextView[][] fontViews = new TextView[THREADS][VIEWS_PER_THREAD];
+            final TextView[][] defaultViews = new TextView[THREADS][VIEWS_PER_THREAD];
+            for (int thread = 0; thread < THREADS; thread++) {
+                for (int i = 0; i < VIEWS_PER_THREAD; i++) {
+                    fontViews[thread][i] = new TextView(mContext, fontAttrs);
+                    defaultViews[thread][i] = new TextView(mContext, defaultAttrs);
+                }
+            }
+            final Typeface[] loaded = new Typeface[THREADS];
+
+            runConcurrently(new ThreadTask() {
+                @Override
+                public void run(int thread) {
+                    loaded[thread] = TypefaceUtils.load(fontFile);
+                    for (int i = 0; i < VIEWS_PER_THREAD; i++) {
+                        mFactory.onViewCreated(fontViews[thread][i], mContext, fontAttrs);
+                        mFactory.onViewCreated(defaultViews[thread][i], mContext, defaultAttrs);
+                    }
+                }
+            });
+
+            final Typeface typeface = TypefaceUtils.load(fontFile);
+            assertNotNull(typeface);
+            for (int thread = 0; thread < THREADS; thread++) {
+                assertSame("Font " + font + " loaded on thread " + thread, typeface, loaded[thread]);
+                for (int i = 0; i < VIEWS_PER_THREAD; i++) {
+                    assertSame("Font " + font + " view on thread " + thread, typeface, fontViews[thread][i].getTypeface());
+                    assertSame("Default view on thread " + thread, mDefaultTypeface, defaultViews[thread][i].getTypeface());
+                }
+            }
+        }
+    }
+
+    /**
+     * Starts the task on {@link #THREADS} threads together, rethrowing the first failure.
+     */
+    private static void runConcurrently(final ThreadTask task) throws Exception {
+        final ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        try {
+            final CountDownLatch start = new CountDownLatch(1);
+            final List<Future<Void>> futures = new ArrayList<>();
+            for (int i = 0; i < THREADS; i++) {
+                final int thread = i;
+                futures.add(executor.submit(new Callable<Void>() {
+                    @Override
+                    public Void call() throws Exception {
+                        start.await();
+                        task.run(thread);
+                        return null;
+                    }
+                }));
+            }
+            start.countDown();
+            for (Future<Void> future : futures) {
+                future.get(30, TimeUnit.SECONDS);
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    private interface ThreadTask {
+        void run(int thread);
+    }
+}
@@ -0,0 +1,186 @@
+package uk.co.chrisjenx.calligraphy;
+
+import android.util.AttributeSet;
+
+import org.robolectric.Robolectric;
+
+/**
+ * View attributes for tests, built the way Robolectric resolves them against the library's
+ * resources, but looked up like a compiled layout's on a device.
+ */
+final class TestAttributes {
+
+    private TestAttributes() {
+    }
+
+    /**
+     * @return attributes of a view with {@code fontPath} set to the given font.
+     */
+    static AttributeSet fontPath(String fontPath) {
+        return build(Robolectric.buildAttributeSet().addAttribute(R.attr.fontPath, fontPath));
+    }
+
+    static AttributeSet build(Robolectric.AttributeSetBuilder builder) {
+        return new DeviceAttributeSet(builder.build());
+    }
+
+    /**
+     * A compiled layout matches a null namespace against an attribute in any namespace, which is
+     * how Calligraphy reads {@code fontPath}, Robolectric only matches attributes without one. It
+     * also hands back the same Strings and resource ids every time, where Robolectric looks them up
+     * again and allocates.
+     */
+    private static final class DeviceAttributeSet implements AttributeSet {
+
+        private final AttributeSet mAttrs;
+        private final String[] mNames;
+        private final String[] mValues;
+        private final int[] mNameResources;
+
+        DeviceAttributeSet(AttributeSet attrs) {
+            mAttrs = attrs;
+            final int count = attrs.getAttributeCount();
+            mNames = new String[count];
+            mValues = new String[count];
+            mNameResources = new int[count];
+            for (int i = 0; i < count; i++) {
+                mNames[i] = attrs.getAttributeName(i);
+                mValues[i] = attrs.getAttributeValue(i);
+                mNameResources[i] = attrs.getAttributeNameResource(i);
+            }
+        }
+
+        private int indexOf(String namespace, String name) {
+            if (namespace != null) return -1;
+            for (int i = 0; i < mNames.length; i++) {
+                if (name.equals(mNames[i])) return i;
+            }
+            return -1;
+        }
+
+        @Override
+        public int getAttributeCount() {
+            return mNames.length;
+        }
+
+        @Override
+        public String getAttributeName(int index) {
+            return mNames[index];
+        }
+
+        @Override
+        public String getAttributeValue(int index) {
+            return mValues[index];
+        }
+
+        @Override
+        public String getAttributeValue(String namespace, String name) {
+            final int index = indexOf(namespace, name);
+            return index >= 0 ? mValues[index] : mAttrs.getAttributeValue(namespace, name);
+        }
+
+        @Override
+        public String getPositionDescription() {
+            return mAttrs.getPositionDescription();
+        }
+
+        @Override
+        public int getAttributeNameResource(int index) {
+            return mNameResources[index];
+        }
+
+        @Override
+        public int getAttributeListValue(String namespace, String attribute, String[] options, int defaultValue) {
+            final int index = indexOf(namespace, attribute);
+            return index >= 0 ? mAttrs.getAttributeListValue(index, options, defaultValue)
+                    : mAttrs.getAttributeListValue(namespace, attribute, options, defaultValue);
+        }
+
+        @Override
+        public boolean getAttributeBooleanValue(String namespace, String attribute, boolean defaultValue) {
+            final int index = indexOf(namespace, attribute);
+            return index >= 0 ? mAttrs.getAttributeBooleanValue(index, defaultValue)
+                    : mAttrs.getAttributeBooleanValue(namespace, attribute, defaultValue);
+        }
+
+        @Override
+        public int getAttributeResourceValue(String namespace, String attribute, int defaultValue) {
+            final int index = indexOf(namespace, attribute);
+            return index >= 0 ? getAttributeResourceValue(index, defaultValue)
+                    : mAttrs.getAttributeResourceValue(namespace, attribute, defaultValue);
+        }
+
+        @Override
+        public int getAttributeIntValue(String namespace, String attribute, int defaultValue) {
+            final int index = indexOf(namespace, attribute);
+            return index >= 0 ? mAttrs.getAttributeIntValue(index, defaultValue)
+                    : mAttrs.getAttributeIntValue(namespace, attribute, defaultValue);
+        }
+
+        @Override
+        public int getAttributeUnsignedIntValue(String namespace, String attribute, int defaultValue) {
+            final int index = indexOf(namespace, attribute);
+            return index >= 0 ? mAttrs.getAttributeUnsignedIntValue(index, defaultValue)
+                    : mAttrs.getAttributeUnsignedIntValue(namespace, attribute, defaultValue);
+        }
+
+        @Override
+        public float getAttributeFloatValue(String namespace, String attribute, float defaultValue) {
+            final int index = indexOf(namespace, attribute);
+            return index >= 0 ? mAttrs.getAttributeFloatValue(index, defaultValue)
+                    : mAttrs.getAttributeFloatValue(namespace, attribute, defaultValue);
+        }
+
+        @Override
+        public int getAttributeListValue(int index, String[] options, int defaultValue) {
+            return mAttrs.getAttributeListValue(index, options, defaultValue);
+        }
+
+        @Override
+        public boolean getAttributeBooleanValue(int index, boolean defaultValue) {
+            return mAttrs.getAttributeBooleanValue(index, defaultValue);
+        }
+
+        @Override
+        public int getAttributeResourceValue(int index, int defaultValue) {
+            // A compiled value is only a resource if it's a reference.
+            final String value = mValues[index];
+            return value != null && value.startsWith("@") ? mAttrs.getAttributeResourceValue(index, defaultValue) : defaultValue;
+        }
+
+        @Override
+        public int getAttributeIntValue(int index, int defaultValue) {
+            return mAttrs.getAttributeIntValue(index, defaultValue);
+        }
+
+        @Override
+        public int getAttributeUnsignedIntValue(int index, int defaultValue) {
+            return mAttrs.getAttributeUnsignedIntValue(index, defaultValue);
+        }
+
+        @Override
+        public float getAttributeFloatValue(int index, float defaultValue) {
+            return mAttrs.getAttributeFloatValue(index, defaultValue);
+        }
+
+        @Override
+        public String getIdAttribute() {
+            return mAttrs.getIdAttribute();
+        }
+
+        @Override
+        public String getClassAttribute() {
+            return mAttrs.getClassAttribute();
+        }
+
+        @Override
+        public int getIdAttributeResourceValue(int defaultValue) {
+            return mAttrs.getIdAttributeResourceValue(defaultValue);
+        }
+
+        @Override
+        public int getStyleAttribute() {
+            return mAttrs.getStyleAttribute();
+        }
+    }
+}
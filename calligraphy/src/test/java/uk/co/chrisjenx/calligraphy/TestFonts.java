@@ -0,0 +1,33 @@
+package uk.co.chrisjenx.calligraphy;
+
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+
+/**
+ * Font files for tests. Robolectric never parses them, they only need to exist with a size.
+ */
+final class TestFonts {
+
+    static final int FONT_FILE_SIZE = 1024;
+
+    private TestFonts() {
+    }
+
+    static File newFontFile(TemporaryFolder folder, String name) throws IOException {
+        return newFontFile(folder, name, FONT_FILE_SIZE);
+    }
+
+    static File newFontFile(TemporaryFolder folder, String name, int size) throws IOException {
+        final File file = folder.newFile(name);
+        final FileOutputStream out = new FileOutputStream(file);
+        try {
+            out.write(new byte[size]);
+        } finally {
+            out.close();
+        }
+        return file;
+    }
+}
@@ -0,0 +1,100 @@
+package uk.co.chrisjenx.calligraphy;
+
+import android.content.ComponentCallbacks2;
+import android.graphics.Typeface;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+
+import java.io.File;
+import java.io.IOException;
+
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * A bounded font cache evicts the least recently used fonts, but never the one that just loaded,
+ * one too big for the cache on its own, or the default font's family.
+ */
+@RunWith(RobolectricTestRunner.class)
+public class TypefaceCacheTrimTest {
+
+    private static final int MAX_CACHE_SIZE = 2 * TestFonts.FONT_FILE_SIZE;
+
+    @Rule
+    public final TemporaryFolder mFolder = new TemporaryFolder();
+
+    @Before
+    public void setUp() {
+        // Fonts cached by other tests would count against the limit.
+        CalligraphyConfig.initDefault(new CalligraphyConfig.Builder().build());
+        TypefaceUtils.onTrimMemory(ComponentCallbacks2.TRIM_MEMORY_COMPLETE);
+    }
+
+    @After
+    public void tearDown() {
+        CalligraphyConfig.initDefault(new CalligraphyConfig.Builder().build());
+    }
+
+    @Test
+    public void evictsLeastRecentlyUsedButNeverTheFontJustLoaded() throws IOException {
+        init(null, null);
+        final Typeface first = load(TestFonts.newFontFile(mFolder, "first.ttf"));
+        final Typeface second = load(TestFonts.newFontFile(mFolder, "second.ttf"));
+        final Typeface third = load(TestFonts.newFontFile(mFolder, "third.ttf"));
+
+        assertFalse(TypefaceUtils.isLoaded(first));
+        assertTrue(TypefaceUtils.isLoaded(second));
+        assertTrue(TypefaceUtils.isLoaded(third));
+    }
+
+    @Test
+    public void keepsAFontBiggerThanTheCache() throws IOException {
+        init(null, null);
+        final Typeface big = load(TestFonts.newFontFile(mFolder, "big.ttf", 2 * MAX_CACHE_SIZE));
+        assertTrue(TypefaceUtils.isLoaded(big));
+
+        final Typeface small = load(TestFonts.newFontFile(mFolder, "small.ttf"));
+        assertTrue(TypefaceUtils.isLoaded(big));
+        assertTrue(TypefaceUtils.isLoaded(small));
+    }
+
+    @Test
+    public void neverEvictsTheDefaultFontFamily() throws IOException {
+        final File regular = TestFonts.newFontFile(mFolder, "regular.ttf");
+        final File bold = TestFonts.newFontFile(mFolder, "bold.ttf");
+        init(regular, bold);
+        final Typeface regularTypeface = load(regular);
+        final Typeface boldTypeface = load(bold);
+
+        for (int i = 0; i < 4; i++) {
+            load(TestFonts.newFontFile(mFolder, "other" + i + ".ttf"));
+        }
+        assertTrue(TypefaceUtils.isLoaded(regularTypeface));
+        assertTrue(TypefaceUtils.isLoaded(boldTypeface));
+    }
+
+    private static void init(File defaultFont, File defaultBold) {
+        final CalligraphyConfig.Builder builder = new CalligraphyConfig.Builder()
+                .setMaxFontCacheSize(MAX_CACHE_SIZE);
+        if (defaultFont != null) {
+            builder.setDefaultFontPath(defaultFont.getAbsolutePath())
+                    .addFontFamily(new CalligraphyFontFamily.Builder(defaultFont.getAbsolutePath())
+                            .setBold(defaultBold.getAbsolutePath())
+                            .build());
+        }
+        CalligraphyConfig.initDefault(builder.build());
+    }
+
+    private static Typeface load(File file) {
+        final Typeface typeface = TypefaceUtils.load(file);
+        assertNotNull(typeface);
+        return typeface;
+    }
+}